@@ -0,0 +1,108 @@
+package com.polywoof;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@ParametersAreNonnullByDefault
+public class PolywoofCache
+{
+	private final Map<String, Segment> segments = new HashMap<>(10);
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private int capacity;
+
+	public PolywoofCache(int capacity)
+	{
+		this.capacity = capacity;
+	}
+
+	@Nullable
+	public synchronized String get(String key, PolywoofStorage.Language language, PolywoofStorage.DataType type)
+	{
+		Segment segment = segments.get(segmentKey(language, type));
+		String string = segment == null ? null : segment.get(key);
+
+		if(string == null)
+			misses.incrementAndGet();
+		else
+			hits.incrementAndGet();
+
+		return string;
+	}
+
+	public synchronized void put(String key, String string, PolywoofStorage.Language language, PolywoofStorage.DataType type)
+	{
+		if(capacity <= 0)
+			return;
+
+		segments.computeIfAbsent(segmentKey(language, type), segment -> new Segment()).put(key, string);
+	}
+
+	public synchronized boolean offer(String key, String string, PolywoofStorage.Language language, PolywoofStorage.DataType type)
+	{
+		Segment segment = segments.computeIfAbsent(segmentKey(language, type), name -> new Segment());
+
+		if(segment.size() >= capacity || segment.containsKey(key))
+			return false;
+
+		segment.put(key, string);
+		return true;
+	}
+
+	public synchronized void resize(int capacity)
+	{
+		this.capacity = capacity;
+
+		for(Segment segment : segments.values())
+			segment.trim();
+	}
+
+	public synchronized void clear()
+	{
+		segments.clear();
+	}
+
+	public long hits()
+	{
+		return hits.get();
+	}
+
+	public long misses()
+	{
+		return misses.get();
+	}
+
+	private static String segmentKey(PolywoofStorage.Language language, PolywoofStorage.DataType type)
+	{
+		return type + "/" + language;
+	}
+
+	private class Segment extends LinkedHashMap<String, String>
+	{
+		private static final long serialVersionUID = 1L;
+
+		public Segment()
+		{
+			super(16, 0.75f, true);
+		}
+
+		public void trim()
+		{
+			while(size() > Math.max(0, capacity))
+				remove(keySet().iterator().next());
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+		{
+			return size() > capacity;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package com.polywoof;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.ui.JagexColors;
@@ -11,6 +13,8 @@ import net.runelite.client.ui.overlay.components.ComponentConstants;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,20 +25,24 @@ public class PolywoofComponent implements RenderableEntity
 	@Setter private static int textWrap;
 	@Setter private static boolean textShadow;
 	@Setter private static boolean boxOutline;
+	@Setter private static boolean rasterCache;
 	@Setter private static Color backgroundColor = ComponentConstants.STANDARD_BACKGROUND_COLOR;
 	@Setter @Getter private static Alignment alignment = Alignment.BOTTOM_LEFT;
 	@Setter @Getter private static Behaviour behaviour = Behaviour.DEFAULT;
 
 	private final Rectangle rectangle = new Rectangle();
-	private final List<List<String>> paragraphs = new ArrayList<>(10);
+	private final List<Line> lines = new ArrayList<>(20);
 	private final String header;
 	private final String string;
-	private Font font;
+	private PolywoofTypeface typeface;
 	private Subject subject;
 	private AlphaComposite composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER);
+	private Alignment aligned;
+	private BufferedImage raster;
+	private int descent;
 	private boolean revalidate;
 
-	public PolywoofComponent(@Nullable String header, String string, Font font, Subject subject)
+	public PolywoofComponent(@Nullable String header, String string, PolywoofTypeface typeface, Subject subject)
 	{
 		if(header != null && header.isEmpty())
 			header = null;
@@ -44,7 +52,7 @@ public class PolywoofComponent implements RenderableEntity
 
 		this.header = header;
 		this.string = string;
-		this.font = font;
+		this.typeface = typeface;
 		this.subject = subject;
 
 		revalidate();
@@ -115,8 +123,36 @@ public class PolywoofComponent implements RenderableEntity
 				break;
 		}
 
-		graphics.setFont(font);
+		if(alignment != aligned)
+			align();
+
 		graphics.setComposite(composite);
+
+		if(!rasterCache || graphics.getTransform().getType() > AffineTransform.TYPE_TRANSLATION)
+		{
+			raster = null;
+			paint(graphics, x, y);
+			return rectangle.getSize();
+		}
+
+		if(raster == null)
+		{
+			raster = graphics.getDeviceConfiguration().createCompatibleImage(rectangle.width, rectangle.height, Transparency.TRANSLUCENT);
+
+			Graphics2D image = raster.createGraphics();
+
+			image.setRenderingHints(graphics.getRenderingHints());
+			paint(image, 0, 0);
+			image.dispose();
+		}
+
+		graphics.drawImage(raster, x, y, null);
+		return rectangle.getSize();
+	}
+
+	private void paint(Graphics2D graphics, int x, int y)
+	{
+		graphics.setFont(typeface.font);
 		graphics.setColor(backgroundColor);
 		graphics.fillRect(x, y, rectangle.width, rectangle.height);
 
@@ -128,103 +164,17 @@ public class PolywoofComponent implements RenderableEntity
 			graphics.drawRect(x + 1, y + 1, rectangle.width - 3, rectangle.height - 3);
 		}
 
-		int offset = 0;
-		boolean plain = subject == Subject.NONE;
-		FontMetrics metrics = graphics.getFontMetrics(font);
-
-		for(List<String> paragraph : paragraphs)
+		for(Line line : lines)
 		{
-			for(String line : paragraph)
+			if(textShadow)
 			{
-				switch(alignment)
-				{
-					case TOP_LEFT:
-					case BOTTOM_LEFT:
-						if(plain)
-							switch(behaviour)
-							{
-								default:
-									x = rectangle.x + metrics.getDescent() * 2;
-									break;
-								case FORCE_CENTER:
-									x = rectangle.x + rectangle.width / 2 - metrics.stringWidth(line) / 2;
-									break;
-								case FORCE_RIGHT:
-									x = rectangle.x + rectangle.width - metrics.getDescent() * 2 - metrics.stringWidth(line);
-									break;
-							}
-						else
-							x = rectangle.x + rectangle.width / 2 - metrics.stringWidth(line) / 2;
-						break;
-					case TOP_CENTER:
-					case BOTTOM_CENTER:
-						if(plain)
-							switch(behaviour)
-							{
-								case FORCE_LEFT:
-									x = rectangle.x - rectangle.width / 2 + metrics.getDescent() * 2;
-									break;
-								default:
-									x = rectangle.x - metrics.stringWidth(line) / 2;
-									break;
-								case FORCE_RIGHT:
-									x = rectangle.x + rectangle.width / 2 - metrics.getDescent() * 2 - metrics.stringWidth(line);
-									break;
-							}
-						else
-							x = rectangle.x - metrics.stringWidth(line) / 2;
-						break;
-					case TOP_RIGHT:
-					case BOTTOM_RIGHT:
-						if(plain)
-							switch(behaviour)
-							{
-								case FORCE_LEFT:
-									x = rectangle.x - rectangle.width + metrics.getDescent() * 2;
-									break;
-								case FORCE_CENTER:
-									x = rectangle.x - rectangle.width / 2 - metrics.stringWidth(line) / 2;
-									break;
-								default:
-									x = rectangle.x - metrics.getDescent() * 2 - metrics.stringWidth(line);
-									break;
-							}
-						else
-							x = rectangle.x - rectangle.width / 2 - metrics.stringWidth(line) / 2;
-						break;
-				}
-
-				switch(alignment)
-				{
-					case TOP_LEFT:
-					case TOP_RIGHT:
-					case TOP_CENTER:
-						y = rectangle.y + metrics.getDescent() * 2 + offset + metrics.getAscent();
-						break;
-					case BOTTOM_LEFT:
-					case BOTTOM_CENTER:
-					case BOTTOM_RIGHT:
-						y = rectangle.y + metrics.getDescent() * 2 + offset + metrics.getAscent() - rectangle.height;
-						break;
-				}
-
-				if(textShadow)
-				{
-					graphics.setColor(Color.BLACK);
-					graphics.drawString(line, x + 1, y + 1);
-				}
-
-				graphics.setColor(plain ? Color.WHITE : JagexColors.MENU_TARGET);
-				graphics.drawString(line, x, y);
-
-				offset += metrics.getAscent() + metrics.getDescent();
+				graphics.setColor(Color.BLACK);
+				graphics.drawString(line.text, x + line.x + 1, y + line.y + 1);
 			}
 
-			offset += metrics.getDescent() * ((subject == Subject.NONE || subject == Subject.HEADER) && plain ? 1f : 0.5f);
-			plain = true;
+			graphics.setColor(line.plain ? Color.WHITE : JagexColors.MENU_TARGET);
+			graphics.drawString(line.text, x + line.x, y + line.y);
 		}
-
-		return rectangle.getSize();
 	}
 
 	public Dimension update(Graphics2D graphics)
@@ -233,86 +183,52 @@ public class PolywoofComponent implements RenderableEntity
 			return rectangle.getSize();
 
 		revalidate = false;
-		paragraphs.clear();
+		aligned = null;
+		raster = null;
+		lines.clear();
 		rectangle.setSize(0, 0);
 
-		int index = -1;
-		FontMetrics metrics = graphics.getFontMetrics(font);
+		int index = -1, offset = 0;
+		boolean plain = subject == Subject.NONE;
+		PolywoofTypeface.Metrics metrics = typeface.metrics(graphics);
+		String[] splits = (subject == Subject.HEADER ? String.format("%s\n%s", header, string) : string).split("\n");
 
-		for(String split : (subject == Subject.HEADER ? String.format("%s\n%s", header, string) : string).split("\n"))
-		{
-			List<String> paragraph = new ArrayList<>(10);
+		descent = metrics.descent;
 
-			if(subject == Subject.NUMBERED && ++index != 0)
-				paragraph.add(String.format("%d. %s", index, split));
-			else
-				paragraph.add(split);
+		for(String split : splits)
+		{
+			String line = subject == Subject.NUMBERED && ++index != 0 ? String.format("%d. %s", index, split) : split;
+			int count = 0;
 
-			for(int i = 0; i < paragraph.size(); i++)
+			do
 			{
-				String line = paragraph.get(i);
-
-				if(metrics.stringWidth(line) <= textWrap - metrics.getDescent() * 4)
-				{
-					rectangle.width = Math.max(rectangle.width, metrics.stringWidth(line));
-					continue;
-				}
-
-				int wrap = 0, word = 0;
-
-				for(int j = 0; j < line.length(); j++)
-				{
-					if(metrics.charsWidth(line.toCharArray(), 0, j + 1) > textWrap - metrics.getDescent() * 4)
-					{
-						int cut = Math.min(wrap, word);
-
-						if(cut == 0 && (cut = Math.max(wrap, word)) == 0)
-							break;
-
-						String begin = line.substring(0, cut);
-						String end = line.substring(cut);
-
-						paragraph.set(i, begin);
-
-						if(!end.isEmpty())
-							paragraph.add(i + 1, end);
-
-						rectangle.width = Math.max(rectangle.width, metrics.stringWidth(begin));
-						break;
-					}
-
-					switch(line.charAt(j))
-					{
-						case ' ':
-						case '.':
-						case ',':
-						case ':':
-						case ';':
-						case '-':
-							wrap = j + 1;
-							word = 0;
-							break;
-						default:
-							word = j;
-							break;
-					}
-				}
+				int cut = wrap(line, metrics, textWrap - descent * 4);
+				String part = cut == 0 ? line : line.substring(0, cut);
+				int width = metrics.stringWidth(part);
+
+				lines.add(new Line(part, width, descent * 2 + offset + metrics.ascent, plain));
+				rectangle.width = Math.max(rectangle.width, width);
+				offset += metrics.ascent + descent;
+				line = cut == 0 ? "" : line.substring(cut);
+				count++;
 			}
+			while(!line.isEmpty());
 
-			rectangle.height += metrics.getAscent() * paragraph.size() + metrics.getDescent() * (paragraph.size() - 1);
-			paragraphs.add(paragraph);
+			rectangle.height += metrics.ascent * count + descent * (count - 1);
+			offset += descent * ((subject == Subject.NONE || subject == Subject.HEADER) && plain ? 1f : 0.5f);
+			plain = true;
 		}
 
-		if(paragraphs.size() > 1)
+		if(splits.length > 1)
 		{
 			if(subject == Subject.HEADER)
-				rectangle.height -= metrics.getDescent() * 0.5f;
+				rectangle.height -= descent * 0.5f;
 
-			rectangle.height += metrics.getDescent() * (subject == Subject.NONE || subject == Subject.HEADER ? 2f : 1.5f) * (paragraphs.size() - 1);
+			rectangle.height += descent * (subject == Subject.NONE || subject == Subject.HEADER ? 2f : 1.5f) * (splits.length - 1);
 		}
 
-		rectangle.width += metrics.getDescent() * 4;
-		rectangle.height += metrics.getDescent() * 4;
+		rectangle.width += descent * 4;
+		rectangle.height += descent * 4;
 
 		log.debug("[{}x{}]", rectangle.width, rectangle.height);
 
@@ -324,12 +240,9 @@ public class PolywoofComponent implements RenderableEntity
 		rectangle.setLocation(x, y);
 	}
 
-	public void setFontSize(int size)
+	public void setTypeface(PolywoofTypeface typeface)
 	{
-		if(size == font.getSize())
-			return;
-
-		font = font.deriveFont((float) size);
+		this.typeface = typeface;
 	}
 
 	public void setHeaderSubject(boolean toggle)
@@ -358,6 +271,131 @@ public class PolywoofComponent implements RenderableEntity
 		revalidate = true;
 	}
 
+	private static int wrap(String line, PolywoofTypeface.Metrics metrics, int limit)
+	{
+		int width = 0, wrap = 0, word = 0;
+
+		for(int i = 0; i < line.length(); i++)
+		{
+			if((width += metrics.charWidth(line.charAt(i))) > limit)
+			{
+				int cut = Math.min(wrap, word);
+				return cut == 0 ? Math.max(wrap, word) : cut;
+			}
+
+			switch(line.charAt(i))
+			{
+				case ' ':
+				case '.':
+				case ',':
+				case ':':
+				case ';':
+				case '-':
+					wrap = i + 1;
+					word = 0;
+					break;
+				default:
+					word = i;
+					break;
+			}
+		}
+
+		return 0;
+	}
+
+	private void align()
+	{
+		int shift = 0;
+
+		switch(alignment)
+		{
+			case TOP_CENTER:
+			case BOTTOM_CENTER:
+				shift = rectangle.width / 2;
+				break;
+			case TOP_RIGHT:
+			case BOTTOM_RIGHT:
+				shift = rectangle.width;
+				break;
+		}
+
+		for(Line line : lines)
+		{
+			switch(alignment)
+			{
+				case TOP_LEFT:
+				case BOTTOM_LEFT:
+					if(line.plain)
+						switch(behaviour)
+						{
+							default:
+								line.x = descent * 2;
+								break;
+							case FORCE_CENTER:
+								line.x = rectangle.width / 2 - line.width / 2;
+								break;
+							case FORCE_RIGHT:
+								line.x = rectangle.width - descent * 2 - line.width;
+								break;
+						}
+					else
+						line.x = rectangle.width / 2 - line.width / 2;
+					break;
+				case TOP_CENTER:
+				case BOTTOM_CENTER:
+					if(line.plain)
+						switch(behaviour)
+						{
+							case FORCE_LEFT:
+								line.x = -rectangle.width / 2 + descent * 2;
+								break;
+							default:
+								line.x = -line.width / 2;
+								break;
+							case FORCE_RIGHT:
+								line.x = rectangle.width / 2 - descent * 2 - line.width;
+								break;
+						}
+					else
+						line.x = -line.width / 2;
+					break;
+				case TOP_RIGHT:
+				case BOTTOM_RIGHT:
+					if(line.plain)
+						switch(behaviour)
+						{
+							case FORCE_LEFT:
+								line.x = -rectangle.width + descent * 2;
+								break;
+							case FORCE_CENTER:
+								line.x = -rectangle.width / 2 - line.width / 2;
+								break;
+							default:
+								line.x = -descent * 2 - line.width;
+								break;
+						}
+					else
+						line.x = -rectangle.width / 2 - line.width / 2;
+					break;
+			}
+
+			line.x += shift;
+		}
+
+		aligned = alignment;
+		raster = null;
+	}
+
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	private static class Line
+	{
+		public final String text;
+		public final int width;
+		public final int y;
+		public final boolean plain;
+		public int x;
+	}
+
 	public enum Alignment
 	{
 		TOP_LEFT,
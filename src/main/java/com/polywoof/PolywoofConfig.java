@@ -20,6 +20,9 @@ public interface PolywoofConfig extends Config
 	@ConfigSection(name = "Formatting", description = "Text formatting", position = 3)
 	String formattingSection = "formattingSection";
 
+	@ConfigSection(name = "Advanced", description = "Storage and performance", position = 4, closedByDefault = true)
+	String advancedSection = "advancedSection";
+
 	@ConfigItem(keyName = "toggle", name = "", description = "", hidden = true)
 	default boolean toggle()
 	{
@@ -180,4 +183,61 @@ public interface PolywoofConfig extends Config
 	{
 		return true;
 	}
+
+	/*
+		Advanced
+	 */
+
+	@Range(max = 10000)
+	@ConfigItem(keyName = "cacheSize", name = "Memory Cache", description = "Remembered lines per language and kind, zero turns it off", section = advancedSection, position = 0)
+	default int cacheSize()
+	{
+		return 500;
+	}
+
+	@Range(max = 4)
+	@ConfigItem(keyName = "readConnections", name = "Read Connections", description = "Parallel lookups, zero shares the writer, applies on restart", section = advancedSection, position = 1)
+	default int readConnections()
+	{
+		return 2;
+	}
+
+	@Range(max = 65536)
+	@ConfigItem(keyName = "warmUp", name = "Warm Up Budget", description = "Kilobytes of the most used lines to preload on login, zero turns it off", section = advancedSection, position = 2)
+	default int warmUp()
+	{
+		return 512;
+	}
+
+	@ConfigItem(keyName = "snapshot", name = "Snapshot File", description = "Keep a memory-mapped copy of your language next to the database", section = advancedSection, position = 3)
+	default boolean snapshot()
+	{
+		return false;
+	}
+
+	@Range(max = 3650)
+	@ConfigItem(keyName = "maxAge", name = "Forget After Days", description = "Unused lines are removed after that many days, zero keeps them forever", section = advancedSection, position = 4)
+	default int maxAge()
+	{
+		return 0;
+	}
+
+	@Range(max = 1000000)
+	@ConfigItem(keyName = "maxRows", name = "Lines Per Kind", description = "Least used lines are removed above that limit, zero means no limit", section = advancedSection, position = 5)
+	default int maxRows()
+	{
+		return 0;
+	}
+
+	@ConfigItem(keyName = "compact", name = "Compact On Exit", description = "Shrink the database file when the plugin stops", section = advancedSection, position = 6)
+	default boolean compact()
+	{
+		return false;
+	}
+
+	@ConfigItem(keyName = "rasterCache", name = "Cache Subtitles", description = "Draw each subtitle once into an image, trades memory for frame time", section = advancedSection, position = 7)
+	default boolean rasterCache()
+	{
+		return false;
+	}
 }
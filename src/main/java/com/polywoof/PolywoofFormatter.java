@@ -6,8 +6,18 @@ import net.runelite.api.widgets.WidgetType;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 @Slf4j
 @ParametersAreNonnullByDefault
@@ -57,17 +67,24 @@ public class PolywoofFormatter
 		new BlockEntry("^The ring shatters\\. Your next ring of recoil will start<br>afresh from [0-9,]+ damage points\\.$", null)
 	};
 
-	private static final Pattern[] filterPatterns =
+	private static final Map<BlockEntry[], BlockIndex> indexes = Collections.synchronizedMap(new IdentityHashMap<>(3));
+
+	private static final Pattern[] templatePatterns =
 	{
-		Pattern.compile("<br>"),
-		Pattern.compile("<.*?>"),
-		Pattern.compile("  +")
+		Pattern.compile("(?<![\\w.,])\\d+(?:[.,]\\d+)*(?!\\w)"),
+		Pattern.compile("\\{(\\d+)}"),
+		Pattern.compile("<span translate=\"no\">(\\{\\d+})</span>")
 	};
 
 	public static void parser(String string, BlockEntry[] entries, Parsable callback)
 	{
-		for(BlockEntry entry : entries)
+		for(int index : indexes.computeIfAbsent(entries, BlockIndex::new).candidates(string))
 		{
+			BlockEntry entry = entries[index];
+
+			if(!string.startsWith(entry.prefix) || !string.contains(entry.literal))
+				continue;
+
 			Matcher matcher = entry.pattern.matcher(string);
 
 			if(matcher.find())
@@ -93,11 +110,122 @@ public class PolywoofFormatter
 		if(string == null)
 			return null;
 
-		string = filterPatterns[0].matcher(string).replaceAll(" ");
-		string = filterPatterns[1].matcher(string).replaceAll("");
-		string = filterPatterns[2].matcher(string).replaceAll(" ");
+		if(filtered(string))
+			return string;
+
+		return filter(string, new StringBuilder(string.length())).toString();
+	}
+
+	public static StringBuilder filter(CharSequence string, StringBuilder builder)
+	{
+		int start = builder.length();
+
+		for(int i = 0; i < string.length();)
+		{
+			char character = string.charAt(i);
+			int end;
+
+			if(linebreak(string, i))
+			{
+				character = ' ';
+				i += 4;
+			}
+			else if(character == '<' && (end = tag(string, i)) != -1)
+			{
+				i = end;
+				continue;
+			}
+			else
+				i++;
+
+			if(builder.length() == start ? character <= ' ' : character == ' ' && builder.charAt(builder.length() - 1) == ' ')
+				continue;
+
+			builder.append(character);
+		}
+
+		while(builder.length() > start && builder.charAt(builder.length() - 1) <= ' ')
+			builder.setLength(builder.length() - 1);
+
+		return builder;
+	}
+
+	private static boolean filtered(String string)
+	{
+		if(string.isEmpty())
+			return true;
+
+		if(string.charAt(0) <= ' ' || string.charAt(string.length() - 1) <= ' ')
+			return false;
+
+		for(int i = 0; i < string.length(); i++)
+			if(string.charAt(i) == '<' || string.charAt(i) == ' ' && string.charAt(i + 1) == ' ')
+				return false;
+
+		return true;
+	}
+
+	private static boolean linebreak(CharSequence string, int index)
+	{
+		return index + 3 < string.length() && string.charAt(index) == '<' && string.charAt(index + 1) == 'b' && string.charAt(index + 2) == 'r' && string.charAt(index + 3) == '>';
+	}
+
+	private static int tag(CharSequence string, int index)
+	{
+		for(int i = index + 1; i < string.length(); i++)
+		{
+			if(linebreak(string, i))
+				i += 3;
+			else if(string.charAt(i) == '>')
+				return i + 1;
+			else if("\n\r\u0085\u2028\u2029".indexOf(string.charAt(i)) != -1)
+				return -1;
+		}
+
+		return -1;
+	}
+
+	public static String template(String string, @Nullable List<String> values)
+	{
+		if(string.indexOf('{') != -1 || string.indexOf('}') != -1)
+			return string;
+
+		Matcher matcher = templatePatterns[0].matcher(string);
+		StringBuffer buffer = new StringBuffer(string.length());
+
+		for(int i = 0; matcher.find(); i++)
+		{
+			matcher.appendReplacement(buffer, "{" + i + "}");
+
+			if(values != null)
+				values.add(matcher.group());
+		}
+
+		return matcher.appendTail(buffer).toString();
+	}
+
+	public static String fill(String string, List<String> values)
+	{
+		Matcher matcher = templatePatterns[1].matcher(string);
+		StringBuffer buffer = new StringBuffer(string.length());
+
+		while(matcher.find())
+		{
+			int index = Integer.parseInt(matcher.group(1));
+			matcher.appendReplacement(buffer, Matcher.quoteReplacement(index < values.size() ? values.get(index) : matcher.group()));
+		}
+
+		return matcher.appendTail(buffer).toString();
+	}
+
+	public static String protect(String string)
+	{
+		return templatePatterns[1].matcher(string).replaceAll("<span translate=\"no\">$0</span>");
+	}
 
-		return string.trim();
+	public static String unprotect(String string)
+	{
+		return templatePatterns[2].matcher(string).replaceAll("$1");
 	}
 
 	public static String formatOptions(Widget ... options)
@@ -177,11 +305,103 @@ public class PolywoofFormatter
 	{
 		public final Pattern pattern;
 		public final String replacement;
+		public final String prefix;
+		public final String literal;
 
 		public BlockEntry(String pattern, @Nullable String replacement)
 		{
+			String[] literals = literals(pattern);
+
 			this.pattern = Pattern.compile(pattern, Pattern.DOTALL);
 			this.replacement = replacement;
+			this.prefix = literals[0];
+			this.literal = literals[1];
+		}
+
+		private static String[] literals(String pattern)
+		{
+			List<String> runs = new ArrayList<>(5);
+			StringBuilder run = new StringBuilder(20);
+			boolean anchored = pattern.startsWith("^");
+
+			if(pattern.contains("|") || pattern.matches("(?s).*\\)[?*{].*"))
+				return new String[] {"", ""};
+
+			for(int i = anchored ? 1 : 0; i < pattern.length(); i++)
+			{
+				char character = pattern.charAt(i);
+
+				if(character == '(' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '?')
+					break;
+
+				if(character == '(' || character == ')')
+					continue;
+
+				if(character == '[' || character == '{')
+				{
+					for(char end = character == '[' ? ']' : '}'; i < pattern.length() && pattern.charAt(i) != end; i++)
+						if(pattern.charAt(i) == '\\')
+							i++;
+
+					runs.add(run.toString());
+					run.setLength(0);
+					continue;
+				}
+
+				if(character == '\\' && (++i >= pattern.length() || Character.isLetterOrDigit(pattern.charAt(i))) || character != '\\' && ".*+?^$]}".indexOf(character) != -1)
+				{
+					runs.add(run.toString());
+					run.setLength(0);
+					continue;
+				}
+
+				if(i + 1 < pattern.length() && "?*{".indexOf(pattern.charAt(i + 1)) != -1)
+				{
+					runs.add(run.toString());
+					run.setLength(0);
+					continue;
+				}
+
+				run.append(pattern.charAt(i));
+
+				if(i + 1 < pattern.length() && pattern.charAt(i + 1) == '+')
+				{
+					runs.add(run.toString());
+					run.setLength(0);
+				}
+			}
+
+			runs.add(run.toString());
+
+			String prefix = anchored ? runs.get(0) : "";
+			String literal = runs.stream().max(Comparator.comparingInt(String::length)).orElse("");
+
+			return new String[] {prefix, literal.length() > prefix.length() ? literal : ""};
+		}
+	}
+
+	private static class BlockIndex
+	{
+		private final Map<Character, int[]> index = new HashMap<>(20);
+		private final int[] fallback;
+
+		public BlockIndex(BlockEntry[] entries)
+		{
+			Set<Character> characters = new HashSet<>(20);
+
+			for(BlockEntry entry : entries)
+				if(!entry.prefix.isEmpty())
+					characters.add(entry.prefix.charAt(0));
+
+			for(char character : characters)
+				index.put(character, IntStream.range(0, entries.length).filter(i -> entries[i].prefix.isEmpty() || entries[i].prefix.charAt(0) == character).toArray());
+
+			fallback = IntStream.range(0, entries.length).filter(i -> entries[i].prefix.isEmpty()).toArray();
+		}
+
+		public int[] candidates(String string)
+		{
+			return string.isEmpty() ? fallback : index.getOrDefault(string.charAt(0), fallback);
 		}
 	}
 }
\ No newline at end of file
@@ -35,7 +35,7 @@ public class PolywoofOverlay extends Overlay
 	private final Rectangle rectangle = new Rectangle(0, 0, 30, 30);
 	private final Map<String, Subtitle> permanent = new HashMap<>(1);
 	private final List<Subtitle> temporary = new ArrayList<>(9);
-	private Font font;
+	private PolywoofTypeface typeface;
 	private AlphaComposite composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER);
 
 	@Inject private Client client;
@@ -127,17 +127,18 @@ public class PolywoofOverlay extends Overlay
 	@Override
 	public void revalidate()
 	{
-		font = new Font(config.fontName(), Font.PLAIN, config.fontSize());
+		typeface = PolywoofTypeface.get(config.fontName(), config.fontSize());
 
 		PolywoofComponent.setTextWrap(config.textWrap());
 		PolywoofComponent.setTextShadow(config.textShadow());
 		PolywoofComponent.setBoxOutline(config.overlayOutline());
+		PolywoofComponent.setRasterCache(config.rasterCache());
 		PolywoofComponent.setBackgroundColor(config.overlayColor());
 		PolywoofComponent.setBehaviour(config.textAlignment());
 
 		for(Subtitle subtitle : permanent.values())
 		{
-			subtitle.component.setFontSize(config.fontSize());
+			subtitle.component.setTypeface(typeface);
 			subtitle.component.setHeaderSubject(config.sourceName());
 			subtitle.component.setNumberedSubject(config.numberedOptions());
 			subtitle.component.revalidate();
@@ -145,7 +146,7 @@ public class PolywoofOverlay extends Overlay
 
 		for(Subtitle subtitle : temporary)
 		{
-			subtitle.component.setFontSize(config.fontSize());
+			subtitle.component.setTypeface(typeface);
 			subtitle.component.setHeaderSubject(config.sourceName());
 			subtitle.component.setNumberedSubject(config.numberedOptions());
 			subtitle.component.revalidate();
@@ -160,7 +161,7 @@ public class PolywoofOverlay extends Overlay
 		if(temporary.size() >= 9)
 			temporary.remove(temporary.size() - 1);
 
-		temporary.add(0, Subtitle.temporary(new PolywoofComponent(header, string, font, subject), System.currentTimeMillis() + 1500L + (long) (string.length() * 1000f * (1f / config.readingSpeed()))));
+		temporary.add(0, Subtitle.temporary(new PolywoofComponent(header, string, typeface, subject), System.currentTimeMillis() + lifetime(string, config.readingSpeed())));
 	}
 
 	public void set(@Nullable String key, @Nullable String header, String string, PolywoofComponent.Subject subject)
@@ -171,7 +172,7 @@ public class PolywoofOverlay extends Overlay
 		if(permanent.containsKey(key))
 			pop(key);
 
-		permanent.put(key, Subtitle.permanent(new PolywoofComponent(header, string, font, subject)));
+		permanent.put(key, Subtitle.permanent(new PolywoofComponent(header, string, typeface, subject)));
 	}
 
 	public void pop(@Nullable String key)
@@ -192,6 +193,11 @@ public class PolywoofOverlay extends Overlay
 		temporary.clear();
 	}
 
+	public static long lifetime(String string, int readingSpeed)
+	{
+		return 1500L + (long) (string.length() * 1000f * (1f / readingSpeed));
+	}
+
 	@AllArgsConstructor(access = AccessLevel.PRIVATE)
 	public static class Subtitle
 	{
@@ -29,17 +29,24 @@ import org.h2.engine.Constants;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.inject.Inject;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
 
 @Slf4j
 @ParametersAreNonnullByDefault
 @PluginDescriptor(name = "Polywoof", description = "Translation for almost every dialogue and some related text, so you can understand what's going on!", tags = {"helper", "language", "translator", "translation"})
 public class PolywoofPlugin extends Plugin
 {
+	private final List<Future<String>> handles = new ArrayList<>(5);
 	private PolywoofStorage storage;
 	private PolywoofTranslator translator;
 	private Widget[] widgets;
 	private int dialogue;
 	private String previous;
+	private String line;
+	private boolean warmed;
+	private volatile int generation;
 
 	@Inject private Client client;
 	@Inject private PolywoofConfig config;
@@ -57,10 +64,16 @@ public class PolywoofPlugin extends Plugin
 	@Override
 	protected void startUp() throws Exception
 	{
-		storage = new PolywoofStorage(new File(RuneLite.CACHE_DIR, "polywoof" + Constants.SUFFIX_MV_FILE));
+		storage = new PolywoofStorage(new File(RuneLite.CACHE_DIR, "polywoof" + Constants.SUFFIX_MV_FILE), config.cacheSize(), config.readConnections());
+		storage.policy(config.maxAge(), config.maxRows(), config.compact());
 		storage.open();
+		snapshot();
+
+		if(client.getGameState() == GameState.LOGGED_IN)
+			warmUp();
 
 		translator = new PolywoofTranslator(okHttpClient, storage, config.key());
+		translator.reading(config.readingSpeed());
 		translator.languages("target", languages -> log.info("{} languages loaded!", languages.size()));
 
 		overlay.setPosition(OverlayPosition.ABOVE_CHATBOX_RIGHT);
@@ -89,7 +102,11 @@ public class PolywoofPlugin extends Plugin
 	@Override
 	protected void shutDown() throws Exception
 	{
+		log.debug("Coalesced {} duplicate translations", translator.coalesced());
+		translator.close();
 		storage.close();
+		warmed = false;
+		line = null;
 		overlay.reset();
 		overlayManager.remove(overlay);
 	}
@@ -120,6 +137,19 @@ public class PolywoofPlugin extends Plugin
 
 					chatMessageManager.queue(QueuedMessage.builder().type(ChatMessageType.CONSOLE).runeLiteFormattedMessage(message).build());
 				}
+				else
+					snapshot();
+				break;
+			case "snapshot":
+				snapshot();
+				break;
+			case "maxAge":
+			case "maxRows":
+			case "compact":
+				storage.policy(config.maxAge(), config.maxRows(), config.compact());
+				break;
+			case "readingSpeed":
+				translator.reading(config.readingSpeed());
 				break;
 			case "key":
 				translator.update(config.key());
@@ -128,6 +158,9 @@ public class PolywoofPlugin extends Plugin
 			case "showButton":
 				config.toggle(true);
 				break;
+			case "cacheSize":
+				storage.resize(config.cacheSize());
+				break;
 			case "fontName":
 			case "fontSize":
 			case "textShadow":
@@ -137,11 +170,28 @@ public class PolywoofPlugin extends Plugin
 			case "textWrap":
 			case "sourceName":
 			case "numberedOptions":
+			case "rasterCache":
 				overlay.revalidate();
 				break;
 		}
 	}
 
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		switch(event.getGameState())
+		{
+			case LOGGED_IN:
+				warmUp();
+				break;
+			case LOGIN_SCREEN:
+				warmed = false;
+				line = null;
+				storage.cancelWarmUp();
+				break;
+		}
+	}
+
 	@Subscribe
 	public void onMenuOpened(MenuOpened event)
 	{
@@ -252,7 +302,8 @@ public class PolywoofPlugin extends Plugin
 		if(!config.toggle())
 		{
 			previous = null;
-			overlay.pop(null);
+			line = null;
+			supersede();
 			return;
 		}
 
@@ -314,6 +365,7 @@ public class PolywoofPlugin extends Plugin
 				type = PolywoofStorage.DataType.VARIOUS_BOOKS;
 				break;
 			default:
+				line = null;
 				return;
 		}
 
@@ -321,7 +373,9 @@ public class PolywoofPlugin extends Plugin
 			return;
 
 		previous = string;
-		overlay.pop(null);
+		supersede();
+
+		int token = generation;
 
 		PolywoofFormatter.parser(string, PolywoofFormatter.dialogueEntries, replacement ->
 		{
@@ -330,7 +384,24 @@ public class PolywoofPlugin extends Plugin
 			if(config.test())
 				overlay.set(null, PolywoofFormatter.filter(header), PolywoofFormatter.filter(replacement), subject);
 			else
-				translator.translate(replacement, PolywoofTranslator.languageFinder(config.language()), type, set -> overlay.set(null, PolywoofFormatter.filter(header), set, subject));
+			{
+				PolywoofStorage.Language language = PolywoofTranslator.languageFinder(config.language());
+
+				handles.add(translator.translate(replacement, language, type, set ->
+				{
+					if(token == generation)
+						overlay.set(null, PolywoofFormatter.filter(header), set, subject);
+				}));
+
+				if(!type.segmented)
+				{
+					if(line != null)
+						storage.follow(line, replacement, type);
+
+					line = replacement;
+					translator.prefetch(replacement, language);
+				}
+			}
 		});
 	}
 
@@ -404,7 +475,7 @@ public class PolywoofPlugin extends Plugin
 			case WidgetIDCustom.BOOK_392:
 				dialogue = 0;
 				previous = null;
-				overlay.pop(null);
+				supersede();
 				break;
 		}
 	}
@@ -426,6 +497,39 @@ public class PolywoofPlugin extends Plugin
 		});
 	}
 
+	private void supersede()
+	{
+		generation++;
+
+		for(Future<String> handle : handles)
+			handle.cancel(false);
+
+		handles.clear();
+		overlay.pop(null);
+	}
+
+	private void snapshot()
+	{
+		PolywoofStorage.Language language = PolywoofTranslator.languageFinder(config.language());
+
+		if(config.snapshot() && !(language instanceof PolywoofTranslator.UnknownLanguage))
+			storage.snapshot(language);
+		else
+			storage.snapshot(null);
+	}
+
+	private void warmUp()
+	{
+		if(warmed)
+			return;
+
+		PolywoofStorage.Language language = PolywoofTranslator.languageFinder(config.language());
+		warmed = true;
+
+		if(config.warmUp() > 0 && !(language instanceof PolywoofTranslator.UnknownLanguage))
+			storage.warmUp(language, config.warmUp() * 1024L);
+	}
+
 	private PolywoofComponent.Subject dialogueSubject(int dialogue)
 	{
 		if(dialogue == WidgetID.DIALOG_OPTION_GROUP_ID)
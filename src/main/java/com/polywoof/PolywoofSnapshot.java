@@ -0,0 +1,354 @@
+package com.polywoof;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Slf4j
+@ParametersAreNonnullByDefault
+public class PolywoofSnapshot
+{
+	private static final int MAGIC = 0x50575353;
+	private static final int HEADER = 8;
+	private static final int ENTRY = 20;
+
+	private final List<Entry> delta = new ArrayList<>(100);
+	private final Set<Long> removed = new HashSet<>(100);
+	private final File directory;
+	private final String language;
+	private final String prefix;
+	private volatile View view;
+
+	public PolywoofSnapshot(File directory, PolywoofStorage.Language language)
+	{
+		this.directory = directory;
+		this.language = language.toString().toUpperCase(Locale.ROOT);
+		this.prefix = "polywoof." + this.language + ".";
+	}
+
+	public boolean covers(PolywoofStorage.Language language)
+	{
+		return this.language.equals(language.toString().toUpperCase(Locale.ROOT));
+	}
+
+	public boolean load()
+	{
+		File[] files = files();
+
+		for(int i = files.length - 1; i >= 0 && view == null; i--)
+		{
+			try
+			{
+				view = map(files[i]);
+				log.debug("Loaded {} translations from the snapshot {}", view.count, view.file.getName());
+			}
+			catch(IOException error)
+			{
+				log.warn("Skipped the broken snapshot {}", files[i].getName(), error);
+			}
+		}
+
+		for(File file : files)
+			if((view == null || !file.equals(view.file)) && !file.delete())
+				log.debug("Failed to delete the old snapshot {}", file.getName());
+
+		return view != null;
+	}
+
+	@Nullable
+	public String get(String text, PolywoofStorage.DataType type, long hash)
+	{
+		View current = view;
+
+		if(current == null)
+			return null;
+
+		long key = key(type, hash);
+		int low = 0, high = current.count - 1;
+
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			long found = current.buffer.getLong(HEADER + middle * ENTRY);
+
+			if(found < key)
+				low = middle + 1;
+			else if(found > key)
+				high = middle - 1;
+			else
+			{
+				while(middle > 0 && current.buffer.getLong(HEADER + (middle - 1) * ENTRY) == key)
+					middle--;
+
+				byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+				for(; middle < current.count && current.buffer.getLong(HEADER + middle * ENTRY) == key; middle++)
+					if(current.matches(middle, bytes))
+						return current.string(middle);
+
+				return null;
+			}
+		}
+
+		return null;
+	}
+
+	public synchronized int add(String text, String string, PolywoofStorage.DataType type, long hash)
+	{
+		delta.add(new Entry(key(type, hash), text.getBytes(StandardCharsets.UTF_8), string.getBytes(StandardCharsets.UTF_8)));
+		return delta.size();
+	}
+
+	public synchronized void remove(PolywoofStorage.DataType type, long hash)
+	{
+		long key = key(type, hash);
+
+		delta.removeIf(entry -> entry.key == key);
+		removed.add(key);
+	}
+
+	public void rebuild()
+	{
+		List<Entry> additions;
+		Set<Long> removals;
+
+		synchronized(this)
+		{
+			if(delta.isEmpty() && removed.isEmpty() && view != null)
+				return;
+
+			additions = new ArrayList<>(delta);
+			removals = new HashSet<>(removed);
+			delta.clear();
+			removed.clear();
+		}
+
+		additions.sort(Comparator.comparingLong(entry -> entry.key));
+
+		View current = view;
+		File file = new File(directory, prefix + System.currentTimeMillis() + ".snapshot");
+		File part = new File(directory, file.getName() + ".part");
+		int size = current == null ? 0 : current.count;
+		long[] keys = new long[size + additions.size()];
+		int[] offsets = new int[keys.length];
+		int[] texts = new int[keys.length];
+		int[] strings = new int[keys.length];
+		int count = 0, blob = 0;
+
+		try
+		{
+			File blobs = File.createTempFile(prefix, ".tmp", directory);
+
+			try(RandomAccessFile temporary = new RandomAccessFile(blobs, "rw"))
+			{
+				FileChannel channel = temporary.getChannel();
+
+				for(int i = 0, j = 0; i < size || j < additions.size();)
+				{
+					Entry addition = j < additions.size() ? additions.get(j) : null;
+					long key = i < size ? current.buffer.getLong(HEADER + i * ENTRY) : Long.MAX_VALUE;
+
+					if(addition != null && (i >= size || addition.key <= key))
+					{
+						while(i < size && current.buffer.getLong(HEADER + i * ENTRY) == addition.key && current.matches(i, addition.text))
+							i++;
+
+						if(j + 1 < additions.size() && additions.get(j + 1).key == addition.key && Arrays.equals(additions.get(j + 1).text, addition.text))
+						{
+							j++;
+							continue;
+						}
+
+						keys[count] = addition.key;
+						texts[count] = addition.text.length;
+						strings[count] = addition.string.length;
+						channel.write(ByteBuffer.wrap(addition.text));
+						channel.write(ByteBuffer.wrap(addition.string));
+						j++;
+					}
+					else if(removals.contains(key))
+					{
+						i++;
+						continue;
+					}
+					else
+					{
+						keys[count] = key;
+						texts[count] = current.buffer.getInt(HEADER + i * ENTRY + 12);
+						strings[count] = current.buffer.getInt(HEADER + i * ENTRY + 16);
+						channel.write(current.slice(current.buffer.getInt(HEADER + i * ENTRY + 8), texts[count] + strings[count]));
+						i++;
+					}
+
+					offsets[count] = blob;
+					blob += texts[count] + strings[count];
+					count++;
+				}
+
+				try(RandomAccessFile output = new RandomAccessFile(part, "rw"))
+				{
+					ByteBuffer index = ByteBuffer.allocate(HEADER + count * ENTRY);
+					long base = HEADER + (long) count * ENTRY;
+
+					index.putInt(MAGIC).putInt(count);
+
+					for(int i = 0; i < count; i++)
+						index.putLong(keys[i]).putInt((int) (base + offsets[i])).putInt(texts[i]).putInt(strings[i]);
+
+					index.flip();
+					output.getChannel().write(index);
+
+					for(long position = 0; position < blob;)
+						position += channel.transferTo(position, blob - position, output.getChannel());
+
+					output.getChannel().force(true);
+				}
+			}
+			finally
+			{
+				if(!blobs.delete())
+					blobs.deleteOnExit();
+			}
+
+			Files.move(part.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			view = map(file);
+
+			if(current != null && !current.file.delete())
+				log.debug("Failed to delete the old snapshot {}", current.file.getName());
+
+			log.debug("Rebuilt the snapshot {} with {} translations", file.getName(), count);
+		}
+		catch(IOException error)
+		{
+			log.error("Failed to rebuild the snapshot", error);
+
+			if(!part.delete())
+				part.deleteOnExit();
+		}
+	}
+
+	public void close()
+	{
+		view = null;
+	}
+
+	private File[] files()
+	{
+		File[] parts = directory.listFiles((folder, name) -> name.startsWith(prefix) && (name.endsWith(".part") || name.endsWith(".tmp")));
+		File[] files = directory.listFiles((folder, name) -> name.startsWith(prefix) && name.endsWith(".snapshot"));
+
+		if(parts != null)
+			for(File part : parts)
+				if(!part.delete())
+					log.debug("Failed to delete the unfinished snapshot {}", part.getName());
+
+		if(files == null)
+			return new File[0];
+
+		Arrays.sort(files, Comparator.comparing(File::getName));
+		return files;
+	}
+
+	private static View map(File file) throws IOException
+	{
+		try(RandomAccessFile input = new RandomAccessFile(file, "r"))
+		{
+			long length = input.length();
+
+			if(length < HEADER || length > Integer.MAX_VALUE)
+				throw new IOException("Invalid snapshot " + file.getName());
+
+			MappedByteBuffer buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+			int count = buffer.getInt(4);
+			long base = HEADER + (long) count * ENTRY;
+
+			if(buffer.getInt(0) != MAGIC || count < 0 || base > length)
+				throw new IOException("Invalid snapshot " + file.getName());
+
+			for(int i = 0; i < count; i++)
+			{
+				long offset = buffer.getInt(HEADER + i * ENTRY + 8);
+				long text = buffer.getInt(HEADER + i * ENTRY + 12);
+				long string = buffer.getInt(HEADER + i * ENTRY + 16);
+
+				if(offset < base || text < 0 || string < 0 || offset + text + string > length)
+					throw new IOException("Truncated snapshot " + file.getName());
+			}
+
+			return new View(file, buffer, count);
+		}
+	}
+
+	private static long key(PolywoofStorage.DataType type, long hash)
+	{
+		return hash ^ (type.ordinal() + 1) * 0x9e3779b97f4a7c15L;
+	}
+
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private static class Entry
+	{
+		public final long key;
+		public final byte[] text;
+		public final byte[] string;
+	}
+
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private static class View
+	{
+		public final File file;
+		public final MappedByteBuffer buffer;
+		public final int count;
+
+		public ByteBuffer slice(int offset, int length)
+		{
+			ByteBuffer slice = buffer.duplicate();
+
+			slice.position(offset);
+			slice.limit(offset + length);
+			return slice;
+		}
+
+		public boolean matches(int index, byte[] text)
+		{
+			int offset = buffer.getInt(HEADER + index * ENTRY + 8);
+
+			if(buffer.getInt(HEADER + index * ENTRY + 12) != text.length)
+				return false;
+
+			for(int i = 0; i < text.length; i++)
+				if(buffer.get(offset + i) != text[i])
+					return false;
+
+			return true;
+		}
+
+		public String string(int index)
+		{
+			int offset = buffer.getInt(HEADER + index * ENTRY + 8);
+			int text = buffer.getInt(HEADER + index * ENTRY + 12);
+			byte[] bytes = new byte[buffer.getInt(HEADER + index * ENTRY + 16)];
+
+			slice(offset + text, bytes.length).get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.polywoof;
 
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 import org.h2.engine.Constants;
 import org.h2.jdbcx.JdbcDataSource;
@@ -13,18 +14,49 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @ParametersAreNonnullByDefault
 public class PolywoofStorage implements AutoCloseable
 {
-	private final Executor executor = Executors.newSingleThreadExecutor();
+	private static final int FORMAT = 5;
+	private static final int FLUSH_SIZE = 50;
+	private static final int MIGRATE_SIZE = 500;
+	private static final int SNAPSHOT_SIZE = 200;
+	private static final int LEGACY_SIZE = 2048;
+	private static final long FLUSH_DELAY = 1000L;
+	private static final long MAINTAIN_DELAY = 5L;
+	private static final long MAINTAIN_PERIOD = 30L;
+	private static final long CLOSE_TIMEOUT = 30L;
+	private static final Map<String, Future<?>> closing = new ConcurrentHashMap<>(2);
+
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
 	private final JdbcDataSource data = new JdbcDataSource();
-	private Connection db;
+	private final List<Pending> pending = new ArrayList<>(FLUSH_SIZE);
+	private final Map<DataType, Map<Long, Integer>> hits = new EnumMap<>(DataType.class);
+	private final Map<Transition, Integer> transitions = new HashMap<>(50);
+	private final Map<String, Set<Long>> released = new HashMap<>(2);
+	private final AtomicBoolean warming = new AtomicBoolean();
+	private final AtomicLong reads = new AtomicLong();
+	private final BlockingQueue<Session> readers;
+	private final ExecutorService reader;
+	private final PolywoofCache cache;
+	private final Catalog catalog = new Catalog();
+	private final File file;
+	private final File directory;
+	private volatile PolywoofSnapshot snapshot;
+	private volatile int maxAge;
+	private volatile int maxRows;
+	private volatile boolean compact;
+	private ScheduledFuture<?> maintenance;
+	private ScheduledFuture<?> flush;
+	private Session db;
 
-	public PolywoofStorage(File file)
+	public PolywoofStorage(File file, int cacheSize, int readConnections)
 	{
 		String path = file.getPath();
 
@@ -32,6 +64,20 @@ public class PolywoofStorage implements AutoCloseable
 			path = path.substring(0, path.length() - Constants.SUFFIX_MV_FILE.length());
 
 		this.data.setURL(Constants.START_URL + path);
+		this.file = file;
+		this.directory = file.getAbsoluteFile().getParentFile();
+		this.cache = new PolywoofCache(cacheSize);
+		this.readers = new ArrayBlockingQueue<>(Math.max(1, readConnections));
+
+		if(readConnections > 0)
+		{
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(readConnections, readConnections, 60L, TimeUnit.SECONDS, new PriorityBlockingQueue<>());
+
+			pool.allowCoreThreadTimeOut(true);
+			this.reader = pool;
+		}
+		else
+			this.reader = executor;
 	}
 
 	public void open()
@@ -41,25 +87,53 @@ public class PolywoofStorage implements AutoCloseable
 
 		executor.execute(() ->
 		{
+			Future<?> closed = closing.get(data.getURL());
+
+			if(closed != null)
+			{
+				try
+				{
+					closed.get(CLOSE_TIMEOUT, TimeUnit.SECONDS);
+					closing.remove(data.getURL(), closed);
+				}
+				catch(InterruptedException | ExecutionException | TimeoutException error)
+				{
+					log.warn("Failed to wait for the previous database to close", error);
+				}
+			}
+
 			try
 			{
 				Connection connection = data.getConnection();
 
-				for(DataType type : DataType.values())
+				try
 				{
-					try(PreparedStatement create = connection.prepareStatement(String.format("CREATE TABLE IF NOT EXISTS `%1$s` (OSRS VARCHAR(%2$s) PRIMARY KEY)", type, type.size)))
-					{
-						create.executeUpdate();
-					}
-					catch(SQLException error)
-					{
-						log.error("Failed to prepare the database", error);
-						connection.close();
-						return;
-					}
+					upgrade(connection);
 				}
+				catch(SQLException error)
+				{
+					log.error("Failed to prepare the database", error);
+					connection.close();
+					return;
+				}
+
+				if(reader != executor)
+					while(readers.remainingCapacity() > 0)
+						readers.add(new Session(data.getConnection()));
 
-				db = connection;
+				db = new Session(connection);
+
+				for(DataType type : DataType.values())
+					if(catalog.contains(type.legacy(), "OSRS"))
+						executor.execute(() -> migrate(type));
+
+				if(catalog.contains("DEEPL", "RUNESCAPE"))
+					executor.execute(() -> retire(0, -1));
+
+				if(!"DONE".equals(state(connection, "TEMPLATE")))
+					executor.execute(() -> retemplate(0, Long.MIN_VALUE, 0));
+
+				maintenance = executor.scheduleWithFixedDelay(this::maintain, MAINTAIN_DELAY, MAINTAIN_PERIOD, TimeUnit.MINUTES);
 			}
 			catch(SQLException error)
 			{
@@ -68,176 +142,1475 @@ public class PolywoofStorage implements AutoCloseable
 		});
 	}
 
-	public void close()
+	private void upgrade(Connection connection) throws SQLException
 	{
-		if(!status())
-			return;
+		try(PreparedStatement create = connection.prepareStatement("CREATE TABLE IF NOT EXISTS `POLYWOOF` (NAME VARCHAR(64) PRIMARY KEY, STATE VARCHAR(256))"))
+		{
+			create.executeUpdate();
+		}
 
-		executor.execute(() ->
+		catalog.load(connection);
+
+		for(DataType type : DataType.values())
 		{
-			try
+			if(catalog.contains(type.toString(), "OSRS") && !catalog.contains(type.toString(), "HASH"))
 			{
-				db.close();
+				try(PreparedStatement rename = connection.prepareStatement(String.format("ALTER TABLE `%1$s` RENAME TO `%2$s`", type, type.legacy())))
+				{
+					rename.executeUpdate();
+					log.info("Migrating {} to the storage format {}", type, FORMAT);
+				}
 			}
-			catch(SQLException error)
+
+			try(PreparedStatement create = connection.prepareStatement(String.format("CREATE TABLE IF NOT EXISTS `%1$s` (HASH BIGINT PRIMARY KEY, OSRS VARCHAR(%2$s) NOT NULL)", type, type.size)))
 			{
-				log.error("Failed to close the database", error);
+				create.executeUpdate();
 			}
-		});
+
+			try(PreparedStatement update = connection.prepareStatement(String.format("ALTER TABLE `%1$s` ADD IF NOT EXISTS HITS INT DEFAULT 0 NOT NULL", type)))
+			{
+				update.executeUpdate();
+			}
+
+			try(PreparedStatement update = connection.prepareStatement(String.format("ALTER TABLE `%1$s` ADD IF NOT EXISTS LAST TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL", type)))
+			{
+				update.executeUpdate();
+			}
+		}
+
+		try(PreparedStatement create = connection.prepareStatement("CREATE TABLE IF NOT EXISTS `TRANSITION` (SOURCE BIGINT NOT NULL, TARGET BIGINT NOT NULL, KIND VARCHAR(32) NOT NULL, COUNT INT DEFAULT 0 NOT NULL, PRIMARY KEY(SOURCE, TARGET, KIND))"))
+		{
+			create.executeUpdate();
+		}
+
+		if(catalog.contains("DEEPL", "RUNESCAPE"))
+		{
+			try(PreparedStatement create = connection.prepareStatement(String.format("CREATE TABLE IF NOT EXISTS `LEGACY` (HASH BIGINT PRIMARY KEY, OSRS VARCHAR(%1$s) NOT NULL, LAST TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)", LEGACY_SIZE)))
+			{
+				create.executeUpdate();
+			}
+		}
+
+		state(connection, "FORMAT", String.valueOf(FORMAT));
+		catalog.load(connection);
 	}
 
-	public void select(String key, Language column, DataType table, @Nullable Selectable callback)
+	private void state(Connection connection, String name, String state) throws SQLException
 	{
-		if(!status())
+		try(PreparedStatement merge = connection.prepareStatement("MERGE INTO `POLYWOOF` (NAME, STATE) VALUES(?, ?)"))
+		{
+			merge.setString(1, name);
+			merge.setString(2, state);
+			merge.executeUpdate();
+		}
+	}
+
+	@Nullable
+	private String state(Connection connection, String name) throws SQLException
+	{
+		try(PreparedStatement select = connection.prepareStatement("SELECT STATE FROM `POLYWOOF` WHERE NAME=?"))
+		{
+			select.setString(1, name);
+
+			try(ResultSet result = select.executeQuery())
+			{
+				return result.next() ? result.getString(1) : null;
+			}
+		}
+	}
+
+	private void migrate(DataType type)
+	{
+		if(!status() || !catalog.contains(type.legacy(), "OSRS"))
 			return;
 
-		executor.execute(() ->
+		List<String> columns = catalog.columns(type.legacy());
+		columns.remove("OSRS");
+
+		try
 		{
-			try(PreparedStatement schema = db.prepareStatement("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME=? AND COLUMN_NAME=?"))
+			for(String column : columns)
+				alter(type, column);
+
+			Map<String, String[]> rows = new LinkedHashMap<>(MIGRATE_SIZE);
+
+			try(PreparedStatement select = db.connection.prepareStatement(String.format("SELECT * FROM `%1$s` LIMIT %2$d", type.legacy(), MIGRATE_SIZE)))
 			{
-				schema.setString(1, table.toString());
-				schema.setString(2, column.toString());
+				try(ResultSet result = select.executeQuery())
+				{
+					while(result.next())
+					{
+						String[] values = new String[columns.size()];
+
+						for(int i = 0; i < columns.size(); i++)
+							values[i] = result.getString(columns.get(i));
+
+						rows.put(result.getString("OSRS"), values);
+					}
+				}
+			}
 
-				if(!schema.executeQuery().next())
+			if(rows.isEmpty())
+			{
+				try(PreparedStatement drop = db.connection.prepareStatement(String.format("DROP TABLE `%1$s`", type.legacy())))
 				{
-					if(callback != null)
-						callback.select(null);
-					return;
+					drop.executeUpdate();
+					catalog.remove(type.legacy());
+					log.info("Migrated {} to the storage format {}", type, FORMAT);
 				}
 
-				try(PreparedStatement select = db.prepareStatement(String.format("SELECT `%2$s` FROM `%1$s` WHERE OSRS=? AND `%2$s` IS NOT NULL", table, column)))
+				return;
+			}
+
+			Set<PreparedStatement> statements = new LinkedHashSet<>(10);
+			db.connection.setAutoCommit(false);
+
+			try(PreparedStatement delete = db.connection.prepareStatement(String.format("DELETE FROM `%1$s` WHERE OSRS=?", type.legacy())))
+			{
+				for(Map.Entry<String, String[]> row : rows.entrySet())
 				{
-					select.setString(1, key);
+					List<String> values = new ArrayList<>(2);
+					String text = PolywoofFormatter.template(normalize(row.getKey()), values);
+					long hash = hash(text);
+
+					for(int i = 0; i < columns.size() && !text.isEmpty() && text.length() <= type.size; i++)
+					{
+						String string = row.getValue()[i] == null ? null : template(row.getValue()[i], values);
+
+						if(string == null || string.length() > type.size)
+							continue;
 
-					ResultSet result = select.executeQuery();
-					String string = null;
+						PreparedStatement merge = db.prepare(Query.MERGE, type.toString(), columns.get(i));
 
-					if(result.next())
-						string = result.getString(column.toString());
+						merge.setLong(1, hash);
+						merge.setString(2, text);
+						merge.setString(3, string);
+						merge.addBatch();
+						statements.add(merge);
+					}
 
-					if(callback != null)
-						callback.select(string);
+					delete.setString(1, row.getKey());
+					delete.addBatch();
 				}
+
+				for(PreparedStatement statement : statements)
+					statement.executeBatch();
+
+				delete.executeBatch();
+				db.connection.commit();
 			}
 			catch(SQLException error)
 			{
-				log.error("Failed to select from the database", error);
+				db.connection.rollback();
+				throw error;
 			}
-		});
+			finally
+			{
+				db.connection.setAutoCommit(true);
+			}
+
+			executor.execute(() -> migrate(type));
+		}
+		catch(SQLException error)
+		{
+			log.error("Failed to migrate the database", error);
+		}
 	}
 
-	@Deprecated
-	public void select(String key, Language column, @Nullable Selectable callback)
+	private void retire(int progress, int total)
 	{
-		if(!status())
+		if(!status() || !catalog.contains("DEEPL", "RUNESCAPE"))
 			return;
 
-		executor.execute(() ->
+		List<String> columns = catalog.columns("DEEPL");
+		columns.remove("RUNESCAPE");
+
+		try
 		{
-			try(PreparedStatement schema = db.prepareStatement("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME=? AND COLUMN_NAME=?"))
+			if(total < 0)
 			{
-				schema.setString(1, "DEEPL");
-				schema.setString(2, column.toString());
+				try(PreparedStatement count = db.connection.prepareStatement("SELECT COUNT(*) FROM `DEEPL`"))
+				{
+					try(ResultSet result = count.executeQuery())
+					{
+						total = result.next() ? result.getInt(1) : 0;
+						log.info("Migrating {} legacy translations", total);
+					}
+				}
+			}
 
-				if(!schema.executeQuery().next())
+			Map<String, String[]> rows = new LinkedHashMap<>(MIGRATE_SIZE);
+
+			try(PreparedStatement select = db.connection.prepareStatement(String.format("SELECT * FROM `DEEPL` LIMIT %d", MIGRATE_SIZE)))
+			{
+				try(ResultSet result = select.executeQuery())
 				{
-					if(callback != null)
-						callback.select(null);
-					return;
+					while(result.next())
+					{
+						String[] values = new String[columns.size()];
+
+						for(int i = 0; i < columns.size(); i++)
+							values[i] = result.getString(columns.get(i));
+
+						rows.put(result.getString("RUNESCAPE"), values);
+					}
+				}
+			}
+
+			if(rows.isEmpty())
+			{
+				try(PreparedStatement drop = db.connection.prepareStatement("DROP TABLE `DEEPL`"))
+				{
+					drop.executeUpdate();
+					state(db.connection, "LEGACY", "RETIRED");
+					catalog.remove("DEEPL");
+					log.info("Migrated {} legacy translations", progress);
 				}
 
-				try(PreparedStatement select = db.prepareStatement(String.format("SELECT `%1$s` FROM `DEEPL` WHERE RUNESCAPE=? AND `%1$s` IS NOT NULL", column)))
+				return;
+			}
+
+			for(String column : columns)
+				alter("LEGACY", LEGACY_SIZE, column);
+
+			Set<PreparedStatement> statements = new LinkedHashSet<>(10);
+			db.connection.setAutoCommit(false);
+
+			try(PreparedStatement delete = db.connection.prepareStatement("DELETE FROM `DEEPL` WHERE RUNESCAPE=?"))
+			{
+				for(Map.Entry<String, String[]> row : rows.entrySet())
 				{
-					select.setString(1, key);
+					List<String> values = new ArrayList<>(2);
+					String text = PolywoofFormatter.template(normalize(row.getKey()), values);
+					long hash = hash(text);
+
+					for(int i = 0; i < columns.size() && !text.isEmpty() && text.length() <= LEGACY_SIZE; i++)
+					{
+						String string = row.getValue()[i] == null ? null : template(row.getValue()[i], values);
 
-					ResultSet result = select.executeQuery();
-					String string = null;
+						if(string == null || string.length() > LEGACY_SIZE)
+							continue;
 
-					if(result.next())
-						string = result.getString(column.toString());
+						PreparedStatement adopt = db.prepare(Query.ADOPT, "LEGACY", columns.get(i));
 
-					if(callback != null)
-						callback.select(string);
+						adopt.setLong(1, hash);
+						adopt.setString(2, text);
+						adopt.setString(3, string);
+						adopt.addBatch();
+						statements.add(adopt);
+					}
+
+					delete.setString(1, row.getKey());
+					delete.addBatch();
 				}
+
+				for(PreparedStatement statement : statements)
+					statement.executeBatch();
+
+				delete.executeBatch();
+				db.connection.commit();
 			}
 			catch(SQLException error)
 			{
-				log.error("Failed to select from the database (deprecated)", error);
+				db.connection.rollback();
+				throw error;
 			}
-		});
+			finally
+			{
+				db.connection.setAutoCommit(true);
+			}
+
+			int migrated = progress + rows.size();
+			int overall = total;
+
+			log.debug("Migrated {} of {} legacy translations", migrated, overall);
+			executor.execute(() -> retire(migrated, overall));
+		}
+		catch(SQLException error)
+		{
+			log.error("Failed to migrate the legacy database", error);
+		}
 	}
 
-	public void insert(String string, String key, Language column, DataType table, @Nullable Insertable callback)
+	private void retemplate(int index, long after, int progress)
 	{
 		if(!status())
 			return;
 
-		executor.execute(() ->
+		DataType[] types = DataType.values();
+
+		try
 		{
-			try(PreparedStatement update = db.prepareStatement(String.format("ALTER TABLE `%1$s` ADD IF NOT EXISTS `%3$s` VARCHAR(%2$s)", table, table.size, column)))
+			if(index > types.length)
 			{
-				update.executeUpdate();
+				state(db.connection, "TEMPLATE", "DONE");
+				log.info("Moved {} translations to their number templates", progress);
+				return;
+			}
 
-				try(PreparedStatement insert = db.prepareStatement(String.format("MERGE INTO `%1$s` (OSRS, `%2$s`) VALUES(?, ?)", table, column)))
+			String table = index < types.length ? types[index].toString() : "LEGACY";
+			int size = index < types.length ? types[index].size : LEGACY_SIZE;
+
+			if(!catalog.contains(table, "OSRS"))
+			{
+				executor.execute(() -> retemplate(index + 1, Long.MIN_VALUE, progress));
+				return;
+			}
+
+			List<String> columns = catalog.columns(table);
+			columns.removeAll(Arrays.asList("HASH", "OSRS", "HITS", "LAST"));
+
+			StringBuilder select = new StringBuilder("SELECT HASH, OSRS");
+
+			for(String column : columns)
+				select.append(", `").append(column).append('`');
+
+			Map<Long, String[]> rows = new LinkedHashMap<>(MIGRATE_SIZE);
+
+			try(PreparedStatement statement = db.connection.prepareStatement(select.append(String.format(" FROM `%1$s` WHERE HASH > ? AND REGEXP_LIKE(OSRS, '[0-9]') ORDER BY HASH FETCH FIRST %2$d ROWS ONLY", table, MIGRATE_SIZE)).toString()))
+			{
+				statement.setLong(1, after);
+
+				try(ResultSet result = statement.executeQuery())
+				{
+					while(result.next())
+					{
+						String[] values = new String[columns.size() + 1];
+
+						for(int i = 0; i < values.length; i++)
+							values[i] = result.getString(i + 2);
+
+						rows.put(result.getLong(1), values);
+					}
+				}
+			}
+
+			List<Long> moved = new ArrayList<>(rows.size());
+			Set<PreparedStatement> statements = new LinkedHashSet<>(10);
+			long last = after;
+
+			db.connection.setAutoCommit(false);
+
+			try(PreparedStatement delete = db.connection.prepareStatement(String.format("DELETE FROM `%1$s` WHERE HASH=?", table)))
+			{
+				for(Map.Entry<Long, String[]> row : rows.entrySet())
 				{
-					insert.setString(1, key);
-					insert.setString(2, string);
-					insert.executeUpdate();
+					List<String> values = new ArrayList<>(2);
+					String text = PolywoofFormatter.template(row.getValue()[0], values);
+
+					last = row.getKey();
+
+					if(text.equals(row.getValue()[0]))
+						continue;
+
+					for(int i = 0; i < columns.size() && text.length() <= size; i++)
+					{
+						String string = row.getValue()[i + 1] == null ? null : template(row.getValue()[i + 1], values);
+
+						if(string == null || string.length() > size)
+							continue;
+
+						PreparedStatement adopt = db.prepare(Query.ADOPT, table, columns.get(i));
+
+						adopt.setLong(1, hash(text));
+						adopt.setString(2, text);
+						adopt.setString(3, string);
+						adopt.addBatch();
+						statements.add(adopt);
+					}
 
-					if(callback != null)
-						callback.insert();
+					delete.setLong(1, row.getKey());
+					delete.addBatch();
+					moved.add(row.getKey());
 				}
+
+				for(PreparedStatement statement : statements)
+					statement.executeBatch();
+
+				delete.executeBatch();
+				db.connection.commit();
 			}
 			catch(SQLException error)
 			{
-				log.error("Failed to insert into the database", error);
+				db.connection.rollback();
+				throw error;
+			}
+			finally
+			{
+				db.connection.setAutoCommit(true);
 			}
-		});
-	}
 
-	public boolean status()
-	{
-		try
-		{
-			return db != null && !db.isClosed();
+			PolywoofSnapshot current = snapshot;
+
+			if(current != null && index < types.length)
+				for(long hash : moved)
+					current.remove(types[index], hash);
+
+			long cursor = last;
+			int done = progress + moved.size();
+
+			if(rows.size() < MIGRATE_SIZE)
+				executor.execute(() -> retemplate(index + 1, Long.MIN_VALUE, done));
+			else
+				executor.execute(() -> retemplate(index, cursor, done));
 		}
 		catch(SQLException error)
 		{
-			log.error("Failed to check the database", error);
+			log.error("Failed to move translations to their number templates", error);
 		}
+	}
 
-		return false;
+	@Nullable
+	private static String template(String string, List<String> values)
+	{
+		if(values.isEmpty())
+			return string;
+
+		List<String> check = new ArrayList<>(values.size());
+		String template = PolywoofFormatter.template(string, check);
+
+		return check.equals(values) ? template : null;
 	}
 
-	@AllArgsConstructor(access = AccessLevel.PRIVATE)
-	public enum DataType
+	public void close()
 	{
-		CHAT_MESSAGES(256),
-		ANY_EXAMINE(256),
-		OVERHEAD_TEXT(256),
-		DIALOGUE_TEXT(512),
-		DIALOGUE_OPTIONS(512),
-		VARIOUS_SCROLLS(1024),
-		VARIOUS_BOOKS(2048),
-		QUEST_DIARY(2048);
+		if(!status())
+			return;
 
-		public final int size;
+		log.debug("Cache statistics: {} hits, {} misses", cache.hits(), cache.misses());
+		warming.set(false);
+		cache.clear();
 
-		@Override
-		public String toString()
+		closing.put(data.getURL(), executor.submit(() ->
 		{
-			return name();
-		}
+			if(maintenance != null)
+				maintenance.cancel(false);
+
+			flush();
+
+			if(snapshot != null)
+			{
+				snapshot.rebuild();
+				snapshot.close();
+			}
+
+			try
+			{
+				if(reader != executor)
+				{
+					for(int i = readers.size() + readers.remainingCapacity(); i > 0; i--)
+					{
+						Session session = readers.poll(5, TimeUnit.SECONDS);
+
+						if(session != null)
+							session.close();
+					}
+				}
+
+				if(compact && sessions() == 1)
+				{
+					long size = file.length();
+
+					try(PreparedStatement shutdown = db.connection.prepareStatement("SHUTDOWN COMPACT"))
+					{
+						shutdown.executeUpdate();
+						log.debug("Compacted the database from {} to {} bytes", size, file.length());
+					}
+				}
+
+				db.close();
+			}
+			catch(SQLException | InterruptedException error)
+			{
+				log.error("Failed to close the database", error);
+			}
+		}));
 	}
 
-	interface Selectable
+	private int sessions() throws SQLException
 	{
-		void select(@Nullable String string);
+		try(PreparedStatement select = db.connection.prepareStatement("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS"))
+		{
+			try(ResultSet result = select.executeQuery())
+			{
+				return result.next() ? result.getInt(1) : 0;
+			}
+		}
 	}
 
-	interface Insertable
+	public void select(String key, Language column, DataType table, int priority, @Nullable Selectable callback)
 	{
-		void insert();
+		if(!status())
+			return;
+
+		String text = normalize(key);
+		String cached = cache.get(text, column, table);
+
+		if(cached == null)
+			cached = unflushed(text, column, table);
+
+		if(cached == null && snapshot != null && snapshot.covers(column))
+			if((cached = snapshot.get(text, table, hash(text))) != null)
+				cache.put(text, cached, column, table);
+
+		boolean counted = priority != DataType.SPECULATIVE;
+
+		if(cached != null)
+		{
+			if(counted)
+				hit(text, table);
+
+			if(callback != null)
+				callback.select(cached);
+			return;
+		}
+
+		read(priority, session ->
+		{
+			try
+			{
+				String string = null;
+
+				if(catalog.contains(table.toString(), column.toString()))
+				{
+					PreparedStatement select = session.prepare(Query.SELECT, table.toString(), column.toString());
+
+					select.setLong(1, hash(text));
+
+					try(ResultSet result = select.executeQuery())
+					{
+						if(result.next() && text.equals(result.getString(1)))
+							string = result.getString(2);
+					}
+				}
+
+				if(string == null && catalog.contains(table.legacy(), column.toString()))
+				{
+					PreparedStatement select = session.prepare(Query.LEGACY, table.legacy(), column.toString());
+
+					select.setString(1, key);
+
+					try(ResultSet result = select.executeQuery())
+					{
+						if(result.next())
+							string = result.getString(1);
+					}
+				}
+
+				if(string != null)
+				{
+					if(counted)
+						hit(text, table);
+
+					cache.put(text, string, column, table);
+				}
+
+				if(callback != null)
+					callback.select(string);
+			}
+			catch(SQLException error)
+			{
+				log.error("Failed to select from the database", error);
+			}
+		});
+	}
+
+	@Deprecated
+	public void select(String key, Language column, int priority, @Nullable Selectable callback)
+	{
+		if(!status())
+			return;
+
+		boolean legacy = catalog.contains("LEGACY", column.toString());
+		boolean deprecated = catalog.contains("DEEPL", column.toString());
+
+		if(!legacy && !deprecated)
+		{
+			if(callback != null)
+				callback.select(null);
+			return;
+		}
+
+		String text = normalize(key);
+
+		read(priority, session ->
+		{
+			try
+			{
+				String string = null;
+
+				if(legacy)
+				{
+					PreparedStatement select = session.prepare(Query.SELECT, "LEGACY", column.toString());
+
+					select.setLong(1, hash(text));
+
+					try(ResultSet result = select.executeQuery())
+					{
+						if(result.next() && text.equals(result.getString(1)))
+							string = result.getString(2);
+					}
+
+					if(string != null)
+						release(hash(text), column);
+				}
+
+				if(string == null && deprecated)
+				{
+					PreparedStatement select = session.prepare(Query.DEPRECATED, "DEEPL", column.toString());
+
+					select.setString(1, key);
+
+					try(ResultSet result = select.executeQuery())
+					{
+						if(result.next())
+							string = result.getString(1);
+					}
+				}
+
+				if(callback != null)
+					callback.select(string);
+			}
+			catch(SQLException error)
+			{
+				log.error("Failed to select from the database (deprecated)", error);
+			}
+		});
+	}
+
+	public void insert(String string, String key, Language column, DataType table, @Nullable Insertable callback)
+	{
+		if(!status())
+			return;
+
+		String text = normalize(key);
+
+		if(text.isEmpty())
+			return;
+
+		cache.put(text, string, column, table);
+
+		synchronized(pending)
+		{
+			pending.add(new Pending(string, text, column, table, callback));
+			schedule();
+		}
+	}
+
+	private void release(long hash, Language column)
+	{
+		synchronized(pending)
+		{
+			released.computeIfAbsent(column.toString(), name -> new HashSet<>(10)).add(hash);
+			schedule();
+		}
+	}
+
+	private void hit(String text, DataType table)
+	{
+		synchronized(pending)
+		{
+			hits.computeIfAbsent(table, type -> new HashMap<>(100)).merge(hash(text), 1, Integer::sum);
+			schedule();
+		}
+	}
+
+	public void follow(String previous, String key, DataType table)
+	{
+		String source = PolywoofFormatter.template(normalize(previous), null);
+		String target = PolywoofFormatter.template(normalize(key), null);
+
+		if(!status() || source.isEmpty() || target.isEmpty() || source.equals(target))
+			return;
+
+		synchronized(pending)
+		{
+			transitions.merge(new Transition(hash(source), hash(target), table), 1, Integer::sum);
+			schedule();
+		}
+	}
+
+	public void predict(String key, int limit, Predictable callback)
+	{
+		if(!status())
+			return;
+
+		String text = PolywoofFormatter.template(normalize(key), null);
+
+		read(DataType.SPECULATIVE, session ->
+		{
+			try
+			{
+				PreparedStatement select = session.prepare(Query.NEXT, "TRANSITION", "COUNT");
+				Map<String, DataType> lines = new LinkedHashMap<>(limit);
+
+				select.setLong(1, hash(text));
+				select.setInt(2, limit);
+
+				try(ResultSet result = select.executeQuery())
+				{
+					while(result.next())
+					{
+						DataType table = DataType.valueOf(result.getString(2));
+						PreparedStatement find = session.prepare(Query.TEXT, table.toString(), "OSRS");
+
+						find.setLong(1, result.getLong(1));
+
+						try(ResultSet found = find.executeQuery())
+						{
+							if(found.next())
+								lines.put(found.getString(1), table);
+						}
+					}
+				}
+
+				if(!lines.isEmpty())
+					callback.predict(lines);
+			}
+			catch(SQLException | IllegalArgumentException error)
+			{
+				log.error("Failed to predict from the database", error);
+			}
+		});
+	}
+
+	private void schedule()
+	{
+		if(pending.size() >= FLUSH_SIZE)
+			executor.execute(this::flush);
+		else if(flush == null)
+			flush = executor.schedule(this::flush, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+	}
+
+	private void flush()
+	{
+		List<Pending> batch;
+		Map<DataType, Map<Long, Integer>> counts;
+		Map<Transition, Integer> follows;
+		Map<String, Set<Long>> releases;
+
+		synchronized(pending)
+		{
+			if(flush != null)
+			{
+				flush.cancel(false);
+				flush = null;
+			}
+
+			if(pending.isEmpty() && hits.isEmpty() && transitions.isEmpty() && released.isEmpty())
+				return;
+
+			batch = new ArrayList<>(pending);
+			counts = new EnumMap<>(hits);
+			follows = new HashMap<>(transitions);
+			releases = new HashMap<>(released);
+			pending.clear();
+			hits.clear();
+			transitions.clear();
+			released.clear();
+		}
+
+		if(!status())
+			return;
+
+		batch.removeIf(insert ->
+		{
+			if(insert.key.length() <= insert.table.size && insert.string.length() <= insert.table.size)
+				return false;
+
+			log.debug("Skipped a translation too long for {}", insert.table);
+			return true;
+		});
+
+		try
+		{
+			for(Pending insert : batch)
+				alter(insert.table, insert.column.toString());
+
+			Set<PreparedStatement> statements = new LinkedHashSet<>(10);
+			db.connection.setAutoCommit(false);
+
+			try
+			{
+				for(Pending insert : batch)
+				{
+					PreparedStatement merge = db.prepare(Query.MERGE, insert.table.toString(), insert.column.toString());
+
+					merge.setLong(1, hash(insert.key));
+					merge.setString(2, insert.key);
+					merge.setString(3, insert.string);
+					merge.addBatch();
+					statements.add(merge);
+				}
+
+				for(Map.Entry<DataType, Map<Long, Integer>> table : counts.entrySet())
+				{
+					PreparedStatement update = db.prepare(Query.HIT, table.getKey().toString(), "HITS");
+
+					for(Map.Entry<Long, Integer> count : table.getValue().entrySet())
+					{
+						update.setInt(1, count.getValue());
+						update.setLong(2, count.getKey());
+						update.addBatch();
+					}
+
+					statements.add(update);
+				}
+
+				for(Map.Entry<Transition, Integer> follow : follows.entrySet())
+				{
+					PreparedStatement merge = db.prepare(Query.FOLLOW, "TRANSITION", "COUNT");
+
+					merge.setLong(1, follow.getKey().source);
+					merge.setLong(2, follow.getKey().target);
+					merge.setString(3, follow.getKey().table.toString());
+					merge.setInt(4, follow.getValue());
+					merge.addBatch();
+					statements.add(merge);
+				}
+
+				for(Map.Entry<String, Set<Long>> column : releases.entrySet())
+				{
+					if(!catalog.contains("LEGACY", column.getKey()))
+						continue;
+
+					PreparedStatement update = db.prepare(Query.RELEASE, "LEGACY", column.getKey());
+
+					for(long hash : column.getValue())
+					{
+						update.setLong(1, hash);
+						update.addBatch();
+					}
+
+					statements.add(update);
+				}
+
+				for(PreparedStatement statement : statements)
+					statement.executeBatch();
+
+				db.connection.commit();
+			}
+			catch(SQLException error)
+			{
+				db.connection.rollback();
+				throw error;
+			}
+			finally
+			{
+				db.connection.setAutoCommit(true);
+			}
+
+			log.debug("Flushed {} translations, {} hit counts and {} transitions", batch.size(), counts.values().stream().mapToInt(Map::size).sum(), follows.size());
+
+			if(snapshot != null)
+			{
+				PolywoofSnapshot current = snapshot;
+
+				for(Pending insert : batch)
+					if(current.covers(insert.column) && current.add(insert.key, insert.string, insert.table, hash(insert.key)) == SNAPSHOT_SIZE)
+						executor.execute(current::rebuild);
+			}
+
+			for(Pending insert : batch)
+				if(insert.callback != null)
+					insert.callback.insert();
+		}
+		catch(SQLException error)
+		{
+			log.error("Failed to insert into the database", error);
+		}
+	}
+
+	private void alter(DataType table, String column) throws SQLException
+	{
+		alter(table.toString(), table.size, column);
+	}
+
+	private void alter(String table, int size, String column) throws SQLException
+	{
+		if(catalog.contains(table, column))
+			return;
+
+		try(PreparedStatement update = db.connection.prepareStatement(String.format("ALTER TABLE `%1$s` ADD IF NOT EXISTS `%3$s` VARCHAR(%2$s)", table, size, column)))
+		{
+			update.executeUpdate();
+			catalog.add(table, column);
+		}
+	}
+
+	private void read(int priority, Readable task)
+	{
+		reader.execute(new Read(priority, reads.getAndIncrement(), () ->
+		{
+			Session session = reader == executor ? db : readers.poll();
+
+			if(session == null)
+				return;
+
+			try
+			{
+				task.read(session);
+			}
+			finally
+			{
+				if(session != db)
+					readers.offer(session);
+			}
+		}));
+	}
+
+	@Nullable
+	private String unflushed(String key, Language column, DataType table)
+	{
+		synchronized(pending)
+		{
+			for(int i = pending.size() - 1; i >= 0; i--)
+			{
+				Pending insert = pending.get(i);
+
+				if(insert.table == table && insert.key.equals(key) && insert.column.toString().equals(column.toString()))
+					return insert.string;
+			}
+		}
+
+		return null;
+	}
+
+	public void policy(int maxAge, int maxRows, boolean compact)
+	{
+		this.maxAge = maxAge;
+		this.maxRows = maxRows;
+		this.compact = compact;
+	}
+
+	private void maintain()
+	{
+		if(!status())
+			return;
+
+		synchronized(pending)
+		{
+			if(!pending.isEmpty())
+				return;
+		}
+
+		legacy();
+
+		if(maxAge <= 0 && maxRows <= 0)
+			return;
+
+		PolywoofSnapshot current = snapshot;
+		long evicted = 0, rows = 0, forgotten = 0;
+
+		try
+		{
+			for(DataType type : DataType.values())
+			{
+				if(maxAge > 0)
+				{
+					try(PreparedStatement delete = db.connection.prepareStatement(String.format("SELECT HASH FROM OLD TABLE (DELETE FROM `%1$s` WHERE LAST < DATEADD(DAY, ?, CURRENT_TIMESTAMP))", type)))
+					{
+						delete.setInt(1, -maxAge);
+						evicted += evict(delete, type, current);
+					}
+				}
+
+				int count;
+
+				try(PreparedStatement select = db.connection.prepareStatement(String.format("SELECT COUNT(*) FROM `%1$s`", type)))
+				{
+					try(ResultSet result = select.executeQuery())
+					{
+						count = result.next() ? result.getInt(1) : 0;
+					}
+				}
+
+				if(maxRows > 0 && count > maxRows)
+				{
+					try(PreparedStatement delete = db.connection.prepareStatement(String.format("SELECT HASH FROM OLD TABLE (DELETE FROM `%1$s` WHERE HASH IN (SELECT HASH FROM `%1$s` ORDER BY HITS, LAST FETCH FIRST ? ROWS ONLY))", type)))
+					{
+						delete.setInt(1, count - maxRows);
+
+						int deleted = evict(delete, type, current);
+						evicted += deleted;
+						count -= deleted;
+					}
+				}
+
+				try(PreparedStatement delete = db.connection.prepareStatement(String.format("DELETE FROM `TRANSITION` WHERE KIND=? AND TARGET NOT IN (SELECT HASH FROM `%1$s`)", type)))
+				{
+					delete.setString(1, type.toString());
+					forgotten += delete.executeUpdate();
+				}
+
+				if(maxRows > 0)
+				{
+					try(PreparedStatement delete = db.connection.prepareStatement("DELETE FROM `TRANSITION` WHERE KIND=? AND (SOURCE, TARGET) IN (SELECT SOURCE, TARGET FROM `TRANSITION` WHERE KIND=? ORDER BY COUNT FETCH FIRST ? ROWS ONLY)"))
+					{
+						int excess = transitions(type) - maxRows;
+
+						if(excess > 0)
+						{
+							delete.setString(1, type.toString());
+							delete.setString(2, type.toString());
+							delete.setInt(3, excess);
+							forgotten += delete.executeUpdate();
+						}
+					}
+				}
+
+				rows += count;
+			}
+
+			if(current != null && evicted > 0)
+				current.rebuild();
+
+			log.debug("Evicted {} cold translations and {} transitions, {} left in {} bytes", evicted, forgotten, rows, file.length());
+		}
+		catch(SQLException error)
+		{
+			log.error("Failed to maintain the database", error);
+		}
+	}
+
+	private void legacy()
+	{
+		if(!catalog.contains("LEGACY", "OSRS"))
+			return;
+
+		List<String> columns = catalog.columns("LEGACY");
+		List<String> empty = new ArrayList<>(columns.size());
+
+		columns.removeAll(Arrays.asList("HASH", "OSRS", "LAST"));
+
+		for(String column : columns)
+			empty.add(String.format("`%1$s` IS NULL", column));
+
+		try
+		{
+			int deleted, count;
+
+			try(PreparedStatement delete = db.connection.prepareStatement("DELETE FROM `LEGACY` WHERE " + (empty.isEmpty() ? "TRUE" : String.join(" AND ", empty)) + (maxAge > 0 ? " OR LAST < DATEADD(DAY, ?, CURRENT_TIMESTAMP)" : "")))
+			{
+				if(maxAge > 0)
+					delete.setInt(1, -maxAge);
+
+				deleted = delete.executeUpdate();
+			}
+
+			try(PreparedStatement select = db.connection.prepareStatement("SELECT COUNT(*) FROM `LEGACY`"))
+			{
+				try(ResultSet result = select.executeQuery())
+				{
+					count = result.next() ? result.getInt(1) : 0;
+				}
+			}
+
+			if(maxRows > 0 && count > maxRows)
+			{
+				try(PreparedStatement delete = db.connection.prepareStatement("DELETE FROM `LEGACY` WHERE HASH IN (SELECT HASH FROM `LEGACY` ORDER BY LAST FETCH FIRST ? ROWS ONLY)"))
+				{
+					delete.setInt(1, count - maxRows);
+					deleted += delete.executeUpdate();
+					count = maxRows;
+				}
+			}
+
+			if(count > 0 || catalog.contains("DEEPL", "RUNESCAPE"))
+			{
+				log.debug("Released {} legacy translations, {} left", deleted, count);
+				return;
+			}
+
+			try(PreparedStatement drop = db.connection.prepareStatement("DROP TABLE `LEGACY`"))
+			{
+				drop.executeUpdate();
+				state(db.connection, "LEGACY", "RELEASED");
+				catalog.remove("LEGACY");
+				log.info("Released all legacy translations");
+			}
+		}
+		catch(SQLException error)
+		{
+			log.error("Failed to release the legacy translations", error);
+		}
+	}
+
+	private int evict(PreparedStatement delete, DataType type, @Nullable PolywoofSnapshot current) throws SQLException
+	{
+		int deleted = 0;
+
+		try(ResultSet result = delete.executeQuery())
+		{
+			for(; result.next(); deleted++)
+				if(current != null)
+					current.remove(type, result.getLong(1));
+		}
+
+		return deleted;
+	}
+
+	private int transitions(DataType type) throws SQLException
+	{
+		try(PreparedStatement select = db.connection.prepareStatement("SELECT COUNT(*) FROM `TRANSITION` WHERE KIND=?"))
+		{
+			select.setString(1, type.toString());
+
+			try(ResultSet result = select.executeQuery())
+			{
+				return result.next() ? result.getInt(1) : 0;
+			}
+		}
+	}
+
+	public void warmUp(Language column, long budget)
+	{
+		if(!warming.compareAndSet(false, true))
+			return;
+
+		executor.execute(() ->
+		{
+			if(!status() || !warming.get())
+				return;
+
+			StringBuilder union = new StringBuilder(1000);
+
+			for(DataType type : DataType.values())
+			{
+				if(!catalog.contains(type.toString(), column.toString()))
+					continue;
+
+				if(union.length() > 0)
+					union.append(" UNION ALL ");
+
+				union.append(String.format("SELECT '%1$s' TYPE, OSRS, `%2$s` STRING, HITS FROM `%1$s` WHERE `%2$s` IS NOT NULL", type, column));
+			}
+
+			if(union.length() == 0)
+			{
+				warming.set(false);
+				return;
+			}
+
+			try(PreparedStatement select = db.connection.prepareStatement(union.append(" ORDER BY HITS DESC").toString()))
+			{
+				long used = 0;
+				int count = 0;
+
+				select.setFetchSize(100);
+
+				try(ResultSet result = select.executeQuery())
+				{
+					while(warming.get() && result.next())
+					{
+						String text = result.getString(2);
+						String string = result.getString(3);
+
+						if((used += 64 + 2L * (text.length() + string.length())) > budget)
+							break;
+
+						if(cache.offer(text, string, column, DataType.valueOf(result.getString(1))))
+							count++;
+					}
+				}
+
+				log.debug("Warmed up {} translations using {} bytes", count, Math.min(used, budget));
+			}
+			catch(SQLException error)
+			{
+				log.error("Failed to warm up the cache", error);
+			}
+			finally
+			{
+				warming.set(false);
+			}
+		});
+	}
+
+	public void snapshot(@Nullable Language column)
+	{
+		executor.execute(() ->
+		{
+			if(snapshot != null && column != null && snapshot.covers(column))
+				return;
+
+			if(snapshot != null)
+			{
+				snapshot.rebuild();
+				snapshot.close();
+				snapshot = null;
+			}
+
+			if(column == null || !status())
+				return;
+
+			PolywoofSnapshot current = new PolywoofSnapshot(directory, column);
+
+			if(!current.load())
+			{
+				for(DataType type : DataType.values())
+				{
+					if(!catalog.contains(type.toString(), column.toString()))
+						continue;
+
+					try(PreparedStatement select = db.connection.prepareStatement(String.format("SELECT HASH, OSRS, `%2$s` FROM `%1$s` WHERE `%2$s` IS NOT NULL", type, column)))
+					{
+						select.setFetchSize(100);
+
+						try(ResultSet result = select.executeQuery())
+						{
+							while(result.next())
+								current.add(result.getString(2), result.getString(3), type, result.getLong(1));
+						}
+					}
+					catch(SQLException error)
+					{
+						log.error("Failed to export the snapshot", error);
+						return;
+					}
+				}
+
+				current.rebuild();
+			}
+
+			snapshot = current;
+		});
+	}
+
+	public void cancelWarmUp()
+	{
+		if(warming.getAndSet(false))
+			log.debug("Warm up cancelled");
+	}
+
+	public void resize(int cacheSize)
+	{
+		cache.resize(cacheSize);
+	}
+
+	public static String normalize(String key)
+	{
+		return PolywoofFormatter.filter(key);
+	}
+
+	private static long hash(String text)
+	{
+		long hash = 0xcbf29ce484222325L;
+
+		for(int i = 0; i < text.length(); i++)
+		{
+			hash ^= text.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+
+		return hash;
+	}
+
+	public boolean status()
+	{
+		try
+		{
+			return db != null && !db.connection.isClosed();
+		}
+		catch(SQLException error)
+		{
+			log.error("Failed to check the database", error);
+		}
+
+		return false;
+	}
+
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	public enum DataType
+	{
+		CHAT_MESSAGES(256, 2, false),
+		ANY_EXAMINE(256, 1, false),
+		OVERHEAD_TEXT(256, 2, false),
+		DIALOGUE_TEXT(512, 0, false),
+		DIALOGUE_OPTIONS(512, 0, false),
+		VARIOUS_SCROLLS(1024, 1, true),
+		VARIOUS_BOOKS(2048, 1, true),
+		QUEST_DIARY(2048, 1, true);
+
+		public static final int SPECULATIVE = 3;
+
+		public final int size;
+		public final int priority;
+		public final boolean segmented;
+
+		public String legacy()
+		{
+			return name() + "_V1";
+		}
+
+		@Override
+		public String toString()
+		{
+			return name();
+		}
+	}
+
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private static class Pending
+	{
+		public final String string;
+		public final String key;
+		public final Language column;
+		public final DataType table;
+		@Nullable public final Insertable callback;
+	}
+
+	@EqualsAndHashCode
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private static class Transition
+	{
+		public final long source;
+		public final long target;
+		public final DataType table;
+	}
+
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private static class Read implements Runnable, Comparable<Read>
+	{
+		public final int priority;
+		public final long sequence;
+		public final Runnable task;
+
+		@Override
+		public void run()
+		{
+			task.run();
+		}
+
+		@Override
+		public int compareTo(Read other)
+		{
+			return priority != other.priority ? Integer.compare(priority, other.priority) : Long.compare(sequence, other.sequence);
+		}
+	}
+
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private enum Query
+	{
+		SELECT("SELECT OSRS, `%2$s` FROM `%1$s` WHERE HASH=? AND `%2$s` IS NOT NULL"),
+		LEGACY("SELECT `%2$s` FROM `%1$s` WHERE OSRS=? AND `%2$s` IS NOT NULL"),
+		DEPRECATED("SELECT `%2$s` FROM `%1$s` WHERE RUNESCAPE=? AND `%2$s` IS NOT NULL"),
+		MERGE("MERGE INTO `%1$s` (HASH, OSRS, `%2$s`) VALUES(?, ?, ?)"),
+		HIT("UPDATE `%1$s` SET HITS=HITS+?, LAST=CURRENT_TIMESTAMP WHERE HASH=?"),
+		NEXT("SELECT TARGET, KIND FROM `%1$s` WHERE SOURCE=? ORDER BY `%2$s` DESC FETCH FIRST ? ROWS ONLY"),
+		TEXT("SELECT `%2$s` FROM `%1$s` WHERE HASH=?"),
+		RELEASE("UPDATE `%1$s` SET `%2$s`=NULL WHERE HASH=?"),
+		FOLLOW("MERGE INTO `%1$s` USING (VALUES(CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS INT))) S(SOURCE, TARGET, KIND, `%2$s`) ON `%1$s`.SOURCE=S.SOURCE AND `%1$s`.TARGET=S.TARGET AND `%1$s`.KIND=S.KIND WHEN MATCHED THEN UPDATE SET `%2$s`=`%1$s`.`%2$s`+S.`%2$s` WHEN NOT MATCHED THEN INSERT (SOURCE, TARGET, KIND, `%2$s`) VALUES(S.SOURCE, S.TARGET, S.KIND, S.`%2$s`)"),
+		ADOPT("MERGE INTO `%1$s` USING (VALUES(CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS VARCHAR))) S(HASH, OSRS, STRING) ON `%1$s`.HASH=S.HASH WHEN MATCHED AND `%1$s`.`%2$s` IS NULL THEN UPDATE SET `%2$s`=S.STRING WHEN NOT MATCHED THEN INSERT (HASH, OSRS, `%2$s`) VALUES(S.HASH, S.OSRS, S.STRING)");
+
+		public final String format;
+	}
+
+	private static class Session implements AutoCloseable
+	{
+		private final Map<String, PreparedStatement> statements = new HashMap<>(30);
+		private final Connection connection;
+
+		public Session(Connection connection)
+		{
+			this.connection = connection;
+		}
+
+		public PreparedStatement prepare(Query query, String table, String column) throws SQLException
+		{
+			String key = query + "/" + table + "/" + column;
+			PreparedStatement statement = statements.get(key);
+
+			if(statement == null)
+				statements.put(key, statement = connection.prepareStatement(String.format(query.format, table, column)));
+
+			return statement;
+		}
+
+		@Override
+		public void close() throws SQLException
+		{
+			for(PreparedStatement statement : statements.values())
+				statement.close();
+
+			statements.clear();
+			connection.close();
+		}
+	}
+
+	private static class Catalog
+	{
+		private final Set<String> columns = ConcurrentHashMap.newKeySet();
+
+		public void load(Connection connection) throws SQLException
+		{
+			try(PreparedStatement schema = connection.prepareStatement("SELECT TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA=SCHEMA()"))
+			{
+				ResultSet result = schema.executeQuery();
+				columns.clear();
+
+				while(result.next())
+					add(result.getString("TABLE_NAME"), result.getString("COLUMN_NAME"));
+			}
+		}
+
+		public boolean contains(String table, String column)
+		{
+			return columns.contains(identifier(table, column));
+		}
+
+		public void add(String table, String column)
+		{
+			columns.add(identifier(table, column));
+		}
+
+		public void remove(String table)
+		{
+			columns.removeIf(column -> column.startsWith(identifier(table, "")));
+		}
+
+		public List<String> columns(String table)
+		{
+			String prefix = identifier(table, "");
+			List<String> output = new ArrayList<>(10);
+
+			for(String column : columns)
+				if(column.startsWith(prefix))
+					output.add(column.substring(prefix.length()));
+
+			return output;
+		}
+
+		private static String identifier(String table, String column)
+		{
+			return (table + "." + column).toUpperCase(Locale.ROOT);
+		}
+	}
+
+	private interface Readable
+	{
+		void read(Session session);
+	}
+
+	interface Selectable
+	{
+		void select(@Nullable String string);
+	}
+
+	interface Insertable
+	{
+		void insert();
+	}
+
+	interface Predictable
+	{
+		void predict(Map<String, DataType> lines);
 	}
 
 	@AllArgsConstructor(access = AccessLevel.PROTECTED)
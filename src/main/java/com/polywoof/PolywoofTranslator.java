@@ -9,12 +9,29 @@ import net.runelite.client.RuneLite;
 import okhttp3.*;
 import org.apache.commons.text.StringEscapeUtils;
 
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @ParametersAreNonnullByDefault
@@ -23,7 +40,36 @@ public class PolywoofTranslator
 	private static final JsonParser parser = new JsonParser();
 	private static final List<PolywoofStorage.Language> trusted = new ArrayList<>(30);
 	private static final List<PolywoofStorage.Language> offline = languageLoader(PolywoofPlugin.class, "/languages.json");
-
+	private static final long STORAGE_TIMEOUT = 5000L;
+	private static final long REQUEST_TIMEOUT = 60000L;
+	private static final long BATCH_DELAY = 50L;
+	private static final int BATCH_SIZE = 50;
+	private static final int BATCH_LENGTH = 50000;
+	private static final int QUEUE_SIZE = 100;
+	private static final int MAX_ATTEMPTS = 5;
+	private static final double RATE = 4d;
+	private static final double BURST = 8d;
+	private static final long BACKOFF_DELAY = 500L;
+	private static final long BACKOFF_LIMIT = 30000L;
+	private static final int STALE_PRIORITY = 2;
+	private static final int PREFETCH_SIZE = 3;
+	private static final int MAX_REQUESTS = 8;
+	private static final int POOL_SIZE = 2;
+	private static final long POOL_KEEP_ALIVE = 5L;
+	private static final long PING_INTERVAL = 30L;
+
+	private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+	private final Map<String, Flight> flights = new HashMap<>(50);
+	private final Map<String, Batch> batches = new HashMap<>(5);
+	private final PriorityQueue<Job> queue = new PriorityQueue<>(QUEUE_SIZE);
+	private double tokens = BURST;
+	private long refilled = System.nanoTime();
+	private long resume = System.nanoTime();
+	private long sequence;
+	private boolean pumping;
+	private volatile int urgent;
+	private volatile int readingSpeed = 10;
+	private final AtomicLong coalesced = new AtomicLong();
 	private final OkHttpClient client;
 	private final PolywoofStorage storage;
 	private String URL;
@@ -31,8 +77,19 @@ public class PolywoofTranslator
 
 	public PolywoofTranslator(OkHttpClient client, PolywoofStorage storage, String auth)
 	{
-		this.client = client;
+		Dispatcher dispatcher = new Dispatcher();
+
+		dispatcher.setMaxRequests(MAX_REQUESTS);
+		dispatcher.setMaxRequestsPerHost(MAX_REQUESTS);
+
+		this.client = client.newBuilder()
+			.dispatcher(dispatcher)
+			.connectionPool(new ConnectionPool(POOL_SIZE, POOL_KEEP_ALIVE, TimeUnit.MINUTES))
+			.pingInterval(PING_INTERVAL, TimeUnit.SECONDS)
+			.eventListenerFactory(call -> new Timing())
+			.build();
 		this.storage = storage;
+		this.executor.setRemoveOnCancelPolicy(true);
 		this.update(auth);
 	}
 
@@ -119,10 +176,30 @@ public class PolywoofTranslator
 		}
 	}
 
-	private void post(String path, RequestBody request, Receivable callback)
+	private void post(String path, RequestBody request, int priority, BooleanSupplier stale, Receivable callback)
 	{
+		post(path, request, priority, stale).thenAccept(body ->
+		{
+			try
+			{
+				callback.receive(body);
+			}
+			catch(Exception error)
+			{
+				log.error("Failed to proceed the API response", error);
+			}
+		});
+	}
+
+	private CompletableFuture<String> post(String path, RequestBody request, int priority, BooleanSupplier stale)
+	{
+		CompletableFuture<String> result = new CompletableFuture<>();
+
 		if(key.isEmpty())
-			return;
+		{
+			result.cancel(false);
+			return result;
+		}
 
 		try
 		{
@@ -136,108 +213,521 @@ public class PolywoofTranslator
 				.post(request)
 				.build();
 
-			client.newCall(headers).enqueue(new Callback()
+			offer(new Job(headers, priority, stale, result));
+		}
+		catch(IOException error)
+		{
+			log.error("Failed to create the API request", error);
+			result.completeExceptionally(error);
+		}
+
+		return result;
+	}
+
+	private void offer(Job job)
+	{
+		Job dropped = null;
+
+		synchronized(queue)
+		{
+			if(queue.size() >= QUEUE_SIZE)
 			{
-				@Override
-				public void onFailure(Call call, IOException error)
+				dropped = job;
+
+				for(Job queued : queue)
+					if(queued.compareTo(dropped) > 0)
+						dropped = queued;
+
+				if(queue.remove(dropped) && dropped.urgent())
+					urgent--;
+			}
+
+			if(dropped != job)
+			{
+				job.sequence = sequence++;
+				queue.add(job);
+
+				if(job.urgent())
+					urgent++;
+			}
+		}
+
+		if(dropped != null)
+		{
+			dropped.result.cancel(false);
+			log.warn("The request queue is full, dropped a request to {}", dropped.request.url().encodedPath());
+		}
+
+		if(dropped != job)
+			later(this::pump, 0L);
+	}
+
+	private void pump()
+	{
+		List<Job> ready = new ArrayList<>((int) BURST);
+		List<Job> dropped = new ArrayList<>(0);
+
+		synchronized(queue)
+		{
+			long now = System.nanoTime();
+
+			tokens = Math.min(BURST, tokens + (now - refilled) * RATE / 1e9);
+			refilled = now;
+
+			long wait = TimeUnit.NANOSECONDS.toMillis(resume - now);
+
+			while(wait <= 0 && tokens >= 1d && !queue.isEmpty())
+			{
+				Job job = queue.poll();
+
+				if(job.urgent())
+					urgent--;
+
+				if(job.stale.getAsBoolean())
 				{
-					log.error("Failed to receive the API response", error);
+					dropped.add(job);
+					continue;
 				}
 
-				@Override
-				public void onResponse(Call call, Response response)
+				tokens--;
+				ready.add(job);
+			}
+
+			if(!queue.isEmpty() && !pumping)
+			{
+				pumping = true;
+				later(() ->
 				{
-					try(ResponseBody body = response.body())
+					synchronized(queue)
 					{
-						handleCode(response.code());
+						pumping = false;
+					}
 
-						if(body == null)
-							return;
+					pump();
+				}, Math.max(wait, (long) Math.ceil((1d - tokens) * 1000d / RATE)));
+			}
+		}
 
-						callback.receive(body.string());
-					}
-					catch(Exception error)
-					{
-						log.error("Failed to proceed the API response", error);
-					}
+		for(Job job : dropped)
+		{
+			job.result.cancel(false);
+			log.debug("Dropped a stale request to {}", job.request.url().encodedPath());
+		}
+
+		ready.forEach(this::send);
+	}
+
+	private void send(Job job)
+	{
+		client.newCall(job.request).enqueue(new Callback()
+		{
+			@Override
+			public void onFailure(Call call, IOException error)
+			{
+				if(retry(job, null))
+					return;
+
+				log.error("Failed to receive the API response", error);
+				job.result.completeExceptionally(error);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response)
+			{
+				try(ResponseBody body = response.body())
+				{
+					if((response.code() == 429 || response.code() == 503) && retry(job, response.header("Retry-After")))
+						return;
+
+					handleCode(response.code());
+
+					if(body == null)
+						throw new IOException("Empty response");
+
+					job.result.complete(body.string());
+				}
+				catch(Exception error)
+				{
+					log.error("Failed to proceed the API response", error);
+					job.result.completeExceptionally(error);
 				}
-			});
+			}
+		});
+	}
+
+	private boolean retry(Job job, @Nullable String retryAfter)
+	{
+		if(++job.attempts > MAX_ATTEMPTS || executor.isShutdown())
+			return false;
+
+		long delay = Math.min(BACKOFF_LIMIT, BACKOFF_DELAY << job.attempts);
+
+		delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+
+		if(retryAfter != null)
+		{
+			try
+			{
+				delay = Math.max(delay, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+
+				synchronized(queue)
+				{
+					resume = Math.max(resume, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay));
+				}
+			}
+			catch(NumberFormatException ignored)
+			{
+			}
 		}
-		catch(IOException error)
+
+		log.debug("Retrying a request to {} in {} ms, attempt {}", job.request.url().encodedPath(), delay, job.attempts);
+		later(() -> offer(job), delay);
+		return true;
+	}
+
+	@Nullable
+	private ScheduledFuture<?> later(Runnable task, long delay)
+	{
+		try
 		{
-			log.error("Failed to create the API request", error);
+			return executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+		}
+		catch(RejectedExecutionException ignored)
+		{
+			return null;
 		}
 	}
 
-	public void translate(String string, PolywoofStorage.Language language, PolywoofStorage.DataType type, Translatable callback)
+	public CompletableFuture<String> translate(String string, PolywoofStorage.Language language, PolywoofStorage.DataType type, Translatable callback)
 	{
-		if(string.isEmpty() || language instanceof UnknownLanguage)
-			return;
+		CompletableFuture<String> handle = type.segmented ? segments(string, language, type) : translate(string, language, type, type.priority);
 
-		if(!storage.status())
+		handle.thenAccept(callback::translate);
+		return handle;
+	}
+
+	private CompletableFuture<String> segments(String string, PolywoofStorage.Language language, PolywoofStorage.DataType type)
+	{
+		List<CompletableFuture<String>> parts = new ArrayList<>(10);
+
+		for(String segment : string.split("\n"))
+			if(!PolywoofFormatter.filter(segment).isEmpty())
+				parts.add(translate(segment, language, type, type.priority));
+
+		if(parts.isEmpty())
 		{
-			translate(string, language, callback);
+			CompletableFuture<String> handle = new CompletableFuture<>();
+
+			handle.cancel(false);
+			return handle;
+		}
+
+		if(parts.size() == 1)
+			return parts.get(0);
+
+		CompletableFuture<String> handle = CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(done -> parts.stream().map(CompletableFuture::join).collect(Collectors.joining("\n")));
+
+		handle.whenComplete((text, error) ->
+		{
+			if(handle.isCancelled())
+				parts.forEach(part -> part.cancel(false));
+		});
+
+		return handle;
+	}
+
+	public void prefetch(String string, PolywoofStorage.Language language)
+	{
+		if(!storage.status() || language instanceof UnknownLanguage)
 			return;
+
+		storage.predict(string, PREFETCH_SIZE, lines ->
+		{
+			for(Map.Entry<String, PolywoofStorage.DataType> line : lines.entrySet())
+				translate(line.getKey(), language, line.getValue(), PolywoofStorage.DataType.SPECULATIVE);
+		});
+	}
+
+	private CompletableFuture<String> translate(String string, PolywoofStorage.Language language, PolywoofStorage.DataType type, int priority)
+	{
+		List<String> values = new ArrayList<>(2);
+		CompletableFuture<String> handle = join(PolywoofFormatter.template(PolywoofFormatter.filter(string), values), language, type, priority);
+
+		if(values.isEmpty())
+			return handle;
+
+		CompletableFuture<String> filled = handle.thenApply(text -> PolywoofFormatter.fill(text, values));
+
+		filled.whenComplete((text, error) ->
+		{
+			if(filled.isCancelled())
+				handle.cancel(false);
+		});
+
+		return filled;
+	}
+
+	private CompletableFuture<String> join(String string, PolywoofStorage.Language language, PolywoofStorage.DataType type, int priority)
+	{
+		CompletableFuture<String> handle = new CompletableFuture<>();
+
+		if(string.isEmpty() || language instanceof UnknownLanguage)
+		{
+			handle.cancel(false);
+			return handle;
 		}
 
-		storage.select(string, language, type, select ->
+		String name = type + "/" + language + "/" + PolywoofStorage.normalize(string);
+		boolean speculative = priority == PolywoofStorage.DataType.SPECULATIVE;
+		long deadline = speculative || type.priority < STALE_PRIORITY ? 0L : System.currentTimeMillis() + PolywoofOverlay.lifetime(string, readingSpeed);
+		Flight flight = new Flight(handle, deadline, speculative);
+
+		while(true)
 		{
-			if(select == null)
+			Flight current;
+
+			synchronized(flights)
+			{
+				current = flights.putIfAbsent(name, flight);
+			}
+
+			if(current == null)
+				break;
+
+			if(speculative)
+			{
+				handle.cancel(false);
+				return handle;
+			}
+
+			boolean stale = current.speculative || current.stale();
+
+			synchronized(flights)
 			{
-				storage.select(string, language, deprecated ->
+				if(flights.get(name) != current)
+					continue;
+
+				if(!stale)
 				{
-					if(deprecated == null)
-					{
-						translate(string, language, insert ->
-						{
-							storage.insert(insert, string, language, type, () -> log.debug("[{}] INSERT", language));
-							callback.translate(insert);
-						});
-					}
-					else
-					{
-						storage.insert(deprecated, string, language, type, () -> log.debug("[{}] DEPRECATED", language));
-						callback.translate(deprecated);
-					}
-				});
+					current.handles.add(handle);
+					coalesced.incrementAndGet();
+					log.debug("[{}] COALESCED", language);
+					return handle;
+				}
+
+				flights.put(name, flight);
 			}
-			else
+
+			if(current.speculative)
 			{
-				log.debug("[{}] SELECT", language);
-				callback.translate(select);
+				current.handles.forEach(speculation -> speculation.cancel(false));
+				log.debug("[{}] PROMOTED", language);
+			}
+
+			break;
+		}
+
+		resolve(string, language, type, priority, flight::stale).whenComplete((text, error) ->
+		{
+			synchronized(flights)
+			{
+				flights.remove(name, flight);
+			}
+
+			for(CompletableFuture<String> waiting : flight.handles)
+			{
+				if(error == null)
+					waiting.complete(text);
+				else
+					waiting.completeExceptionally(error);
 			}
 		});
+
+		return handle;
+	}
+
+	private CompletableFuture<String> resolve(String string, PolywoofStorage.Language language, PolywoofStorage.DataType type, int priority, BooleanSupplier stale)
+	{
+		if(!storage.status())
+			return request(string, language, priority, stale);
+
+		CompletableFuture<String> select = new CompletableFuture<>();
+
+		storage.select(string, language, type, priority, select::complete);
+
+		return within(select, STORAGE_TIMEOUT, "select").thenComposeAsync(found ->
+		{
+			if(found != null)
+			{
+				log.debug("[{}] SELECT", language);
+				return CompletableFuture.completedFuture(found);
+			}
+
+			CompletableFuture<String> deprecated = new CompletableFuture<>();
+
+			storage.select(string, language, priority, deprecated::complete);
+
+			return within(deprecated, STORAGE_TIMEOUT, "deprecated select").thenComposeAsync(adopted ->
+			{
+				if(adopted != null)
+				{
+					storage.insert(adopted, string, language, type, () -> log.debug("[{}] DEPRECATED", language));
+					return CompletableFuture.completedFuture(adopted);
+				}
+
+				return request(string, language, priority, stale).thenApply(insert ->
+				{
+					storage.insert(insert, string, language, type, () -> log.debug("[{}] INSERT", language));
+					return insert;
+				});
+			}, executor);
+		}, executor);
 	}
 
 	public void translate(String string, PolywoofStorage.Language language, Translatable callback)
 	{
+		request(string, language, 0, () -> false).thenAccept(callback::translate);
+	}
+
+	private CompletableFuture<String> request(String string, PolywoofStorage.Language language, int priority, BooleanSupplier stale)
+	{
+		CompletableFuture<String> result = new CompletableFuture<>();
+
 		if((string = PolywoofFormatter.filter(string)).isEmpty() || !(language instanceof TrustedLanguage))
+		{
+			result.cancel(false);
+			return result;
+		}
+
+		if(stale.getAsBoolean())
+		{
+			log.debug("[{}] STALE", language);
+			result.cancel(false);
+			return result;
+		}
+
+		String name = language + "/" + priority;
+		Batch full = null;
+
+		synchronized(batches)
+		{
+			Batch batch = batches.get(name);
+
+			if(batch == null)
+			{
+				Batch created = batch = new Batch(name, language, priority);
+
+				batches.put(name, created);
+				later(() -> dispatch(created), BATCH_DELAY);
+			}
+
+			batch.texts.add(string);
+			batch.results.add(result);
+			batch.stales.add(stale);
+			batch.length += string.length();
+
+			if(batch.texts.size() >= BATCH_SIZE || batch.length >= BATCH_LENGTH)
+			{
+				batches.remove(name);
+				full = batch;
+			}
+		}
+
+		if(full != null)
+			send(full);
+
+		return within(result, REQUEST_TIMEOUT, "request");
+	}
+
+	private <T> CompletableFuture<T> within(CompletableFuture<T> future, long timeout, String stage)
+	{
+		if(future.isDone())
+			return future;
+
+		ScheduledFuture<?> timer = later(() -> future.completeExceptionally(new TimeoutException("The " + stage + " stage timed out")), timeout);
+
+		if(timer != null)
+			future.whenComplete((value, error) -> timer.cancel(false));
+
+		return future;
+	}
+
+	private void dispatch(Batch batch)
+	{
+		synchronized(batches)
+		{
+			if(!batches.remove(batch.name, batch))
+				return;
+		}
+
+		send(batch);
+	}
+
+	private void send(Batch batch)
+	{
+		FormBody.Builder request = new FormBody.Builder();
+		List<CompletableFuture<String>> results = new ArrayList<>(batch.results.size());
+		List<BooleanSupplier> stales = new ArrayList<>(batch.stales.size());
+
+		for(int i = 0; i < batch.texts.size(); i++)
+		{
+			CompletableFuture<String> result = batch.results.get(i);
+			BooleanSupplier stale = batch.stales.get(i);
+
+			if(result.isDone() || stale.getAsBoolean())
+			{
+				result.cancel(false);
+				continue;
+			}
+
+			request.add("text", PolywoofFormatter.protect(batch.texts.get(i)));
+			results.add(result);
+			stales.add(() -> result.isDone() || stale.getAsBoolean());
+		}
+
+		if(results.isEmpty())
 			return;
 
-		RequestBody request = new FormBody.Builder()
-			.add("text", string)
-			.add("target_lang", language.toString())
+		request.add("target_lang", batch.language.toString())
 			.add("source_lang", "en")
 			.add("preserve_formatting", "1")
 			.add("tag_handling", "html")
-			.add("non_splitting_tags", "br")
-			.build();
+			.add("non_splitting_tags", "br");
 
-		post("/v2/translate", request, body ->
+		log.debug("[{}] Sending {} texts in one request", batch.language, results.size());
+
+		post("/v2/translate", request.build(), batch.priority, () -> stales.stream().allMatch(BooleanSupplier::getAsBoolean)).whenComplete((body, error) ->
 		{
-			JsonObject json = parser.parse(body).getAsJsonObject();
-			StringBuilder output = new StringBuilder(100);
+			try
+			{
+				if(error != null)
+					throw error;
+
+				JsonArray json = parser.parse(body).getAsJsonObject().getAsJsonArray("translations");
 
-			for(JsonElement element : json.getAsJsonArray("translations"))
-				output.append(StringEscapeUtils.unescapeHtml4(element.getAsJsonObject().get("text").getAsString()));
+				for(int i = 0; i < json.size() && i < results.size(); i++)
+					results.get(i).complete(StringEscapeUtils.unescapeHtml4(PolywoofFormatter.unprotect(json.get(i).getAsJsonObject().get("text").getAsString())));
 
-			callback.translate(output.toString());
+				error = new IOException("Missing translation");
+			}
+			catch(Throwable failure)
+			{
+				error = failure;
+			}
+
+			for(CompletableFuture<String> result : results)
+				result.completeExceptionally(error);
 		});
 	}
 
+	public long coalesced()
+	{
+		return coalesced.get();
+	}
+
 	public void usage(Usable callback)
 	{
-		post("/v2/usage", new FormBody.Builder().build(), body ->
+		post("/v2/usage", new FormBody.Builder().build(), 0, () -> false, body ->
 		{
 			JsonObject json = parser.parse(body).getAsJsonObject();
 			callback.usage(json.get("character_count").getAsLong(), json.get("character_limit").getAsLong());
@@ -246,7 +736,7 @@ public class PolywoofTranslator
 
 	public void languages(String type, Supportable callback)
 	{
-		post("/v2/languages", new FormBody.Builder().add("type", type).build(), body ->
+		post("/v2/languages", new FormBody.Builder().add("type", type).build(), 0, () -> false, body ->
 		{
 			JsonArray json = parser.parse(body).getAsJsonArray();
 
@@ -262,10 +752,24 @@ public class PolywoofTranslator
 		});
 	}
 
+	public void reading(int readingSpeed)
+	{
+		this.readingSpeed = readingSpeed;
+	}
+
+	public void close()
+	{
+		executor.shutdown();
+		client.dispatcher().executorService().shutdown();
+		client.connectionPool().evictAll();
+	}
+
 	public void update(String auth)
 	{
 		URL = auth.endsWith(":fx") ? "https://api-free.deepl.com" : "https://api.deepl.com";
 		key = auth;
+		client.connectionPool().evictAll();
+		post("/v2/usage", new FormBody.Builder().build(), 0, () -> false, body -> log.debug("Warmed up the connection to {}", URL));
 	}
 
 	public interface Receivable
@@ -288,6 +792,118 @@ public class PolywoofTranslator
 		void list(List<PolywoofStorage.Language> languages);
 	}
 
+	private static class Timing extends EventListener
+	{
+		private long dns;
+		private long connect;
+		private long secure;
+
+		@Override
+		public void dnsStart(Call call, String domainName)
+		{
+			dns = System.nanoTime();
+		}
+
+		@Override
+		public void connectStart(Call call, InetSocketAddress address, Proxy proxy)
+		{
+			connect = System.nanoTime();
+		}
+
+		@Override
+		public void secureConnectStart(Call call)
+		{
+			secure = System.nanoTime();
+		}
+
+		@Override
+		public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, @Nullable Protocol protocol)
+		{
+			long now = System.nanoTime();
+
+			log.debug("Connected to {} over {} in {} ms, {} ms of DNS and {} ms of TLS", call.request().url().host(), protocol,
+				TimeUnit.NANOSECONDS.toMillis(now - (dns == 0L ? connect : dns)),
+				dns == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(connect - dns),
+				secure == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(now - secure));
+		}
+	}
+
+	private class Flight
+	{
+		public final List<CompletableFuture<String>> handles = new CopyOnWriteArrayList<>();
+		public final long deadline;
+		public final boolean speculative;
+
+		public Flight(CompletableFuture<String> handle, long deadline, boolean speculative)
+		{
+			this.handles.add(handle);
+			this.deadline = deadline;
+			this.speculative = speculative;
+		}
+
+		public boolean stale()
+		{
+			if(deadline != 0L && deadline < System.currentTimeMillis())
+				return true;
+
+			if(speculative && urgent > 0)
+				return true;
+
+			for(CompletableFuture<String> handle : handles)
+				if(!handle.isCancelled())
+					return false;
+
+			return true;
+		}
+	}
+
+	private static class Batch
+	{
+		public final List<String> texts = new ArrayList<>(BATCH_SIZE);
+		public final List<CompletableFuture<String>> results = new ArrayList<>(BATCH_SIZE);
+		public final List<BooleanSupplier> stales = new ArrayList<>(BATCH_SIZE);
+		public final String name;
+		public final PolywoofStorage.Language language;
+		public final int priority;
+		public int length;
+
+		public Batch(String name, PolywoofStorage.Language language, int priority)
+		{
+			this.name = name;
+			this.language = language;
+			this.priority = priority;
+		}
+	}
+
+	private static class Job implements Comparable<Job>
+	{
+		public final Request request;
+		public final int priority;
+		public final BooleanSupplier stale;
+		public final CompletableFuture<String> result;
+		public long sequence;
+		public int attempts;
+
+		public Job(Request request, int priority, BooleanSupplier stale, CompletableFuture<String> result)
+		{
+			this.request = request;
+			this.priority = priority;
+			this.stale = stale;
+			this.result = result;
+		}
+
+		public boolean urgent()
+		{
+			return priority < PolywoofStorage.DataType.SPECULATIVE;
+		}
+
+		@Override
+		public int compareTo(Job other)
+		{
+			return priority != other.priority ? Integer.compare(priority, other.priority) : Long.compare(sequence, other.sequence);
+		}
+	}
+
 	public static class TrustedLanguage extends PolywoofStorage.Language
 	{
 		public TrustedLanguage(JsonObject object)
@@ -0,0 +1,72 @@
+package com.polywoof;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@ParametersAreNonnullByDefault
+public class PolywoofTypeface
+{
+	private static final Map<String, PolywoofTypeface> typefaces = new HashMap<>(4);
+
+	public final Font font;
+	private final Map<FontRenderContext, Metrics> metrics = new HashMap<>(2);
+
+	private PolywoofTypeface(Font font)
+	{
+		this.font = font;
+	}
+
+	public static synchronized PolywoofTypeface get(String name, int size)
+	{
+		String key = name + "/" + size;
+		PolywoofTypeface typeface = typefaces.get(key);
+
+		if(typeface == null)
+		{
+			if(typefaces.size() >= 16)
+				typefaces.clear();
+
+			typefaces.put(key, typeface = new PolywoofTypeface(new Font(name, Font.PLAIN, size)));
+			log.debug("Created the typeface {}", key);
+		}
+
+		return typeface;
+	}
+
+	public synchronized Metrics metrics(Graphics2D graphics)
+	{
+		return metrics.computeIfAbsent(graphics.getFontRenderContext(), context -> new Metrics(graphics.getFontMetrics(font)));
+	}
+
+	public static class Metrics
+	{
+		public final FontMetrics metrics;
+		public final int ascent;
+		public final int descent;
+		private final int[] advances;
+
+		private Metrics(FontMetrics metrics)
+		{
+			this.metrics = metrics;
+			this.ascent = metrics.getAscent();
+			this.descent = metrics.getDescent();
+			this.advances = metrics.getWidths();
+		}
+
+		public int charWidth(char character)
+		{
+			return character < advances.length ? advances[character] : metrics.charWidth(character);
+		}
+
+		public int stringWidth(String string)
+		{
+			return metrics.stringWidth(string);
+		}
+	}
+}
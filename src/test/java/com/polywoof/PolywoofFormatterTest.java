@@ -0,0 +1,69 @@
+package com.polywoof;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PolywoofFormatterTest
+{
+	private static final String[] filterCases =
+	{
+		"",
+		" ",
+		"Hello there.",
+		"  Hello   there.  ",
+		"\tHello\tthere.\t",
+		"\r\nHello there.\r\n",
+		"Hello<br>there.",
+		"Hello <br> there.",
+		"<br>Hello<br><br>there.<br>",
+		"<col=ff0000>Hello</col> there.",
+		"<col=ff0000><col=00ff00>Nested</col></col> tags.",
+		"<<br>>",
+		"<a<br>b>",
+		"<col=<br>ff0000>Hello</col>",
+		"<<col=ff0000>>Hello",
+		"Unclosed <tag",
+		"Unclosed <tag and <col=ff0000>closed</col>",
+		"Broken <tag\nacross> lines",
+		"Broken <tag\racross> lines",
+		"Broken <tag\u0085across> lines",
+		"Broken <tag\u2028across> lines",
+		"Broken <tag\u2029across> lines",
+		"a > b < c",
+		"<>Empty tag",
+		"Trailing tag<col=ff0000>",
+		"<img=1>Name: Hello<br>  there.",
+		"Ends with a space <br>",
+		"\u00a0Non-breaking\u00a0space\u00a0"
+	};
+
+	@Test
+	public void filterMatchesTheRegexChain()
+	{
+		for(String string : filterCases)
+		{
+			String expected = legacyFilter(string);
+
+			assertEquals(string, expected, PolywoofFormatter.filter(string));
+			assertEquals(string, expected, PolywoofFormatter.filter(string, new StringBuilder()).toString());
+			assertEquals(string, "prefix" + expected, PolywoofFormatter.filter(string, new StringBuilder("prefix")).toString());
+		}
+	}
+
+	@Test
+	public void filterKeepsCleanStrings()
+	{
+		String string = "Hello there.";
+
+		assertSame(string, PolywoofFormatter.filter(string));
+		assertNull(PolywoofFormatter.filter(null));
+	}
+
+	private static String legacyFilter(String string)
+	{
+		return string.replaceAll("<br>", " ").replaceAll("<.*?>", "").replaceAll("  +", " ").trim();
+	}
+}
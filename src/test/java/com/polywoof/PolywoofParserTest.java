@@ -0,0 +1,205 @@
+package com.polywoof;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PolywoofParserTest
+{
+	private static final String[] matchingCases =
+	{
+		"1,000 x Coins.",
+		"You gain 1,250 Attack XP.",
+		"Your Agility lap count is: 12.",
+		"You can inflict 40 more points of damage before a ring will shatter.",
+		"You can smelt 12 more pieces of iron ore before a ring melts.",
+		"Your reward is: 3 x Coins.",
+		"You have opened the Brimstone chest once.",
+		"Congratulations, you've just advanced your Attack level.",
+		"Congratulations, you've just advanced your Attack level. You are now level 50.",
+		"Congratulations, you've reached a total level of 1,500.",
+		"Congratulations, you've completed an easy combat task: Noxious Foe.",
+		"<col=ef1020>Well done! You have completed an easy task in the Varrock area. Your Achievement Diary has been updated.</col>",
+		"<col=ef1020>You're assigned to kill </col>goblins<col=ef1020>; only 12 more to go.</col>",
+		"<col=ef1020>You have completed your task! You killed</col> 12 goblins<col=ef1020>. You gained</col> 40 xp<col=ef1020>.</col>",
+		"<col=ef1020>You've completed </col>25 tasks <col=ef1020>and received 15 points.</col>",
+		"You've been awarded 180 bonus Runecraft XP for closing the rift.",
+		"Amount of rifts you have closed: 12.",
+		"Total elemental energy: 120.",
+		"Elemental energy attuned: 30.",
+		"Rune pouch: currently costs 1,200 coins.",
+		"<col=ef1020>Valuable drop: Dragon bones (3,000 coins)</col>",
+		"<col=ef1020>Zezima received a drop: Abyssal whip</col>",
+		"1,337",
+		"7",
+		"Your wish has been granted!<br>You have been awarded 2,500 Attack experience!",
+		"Your brain power serves you well!<br>You have been awarded 1,000 Herblore experience!",
+		"Your new task is to kill 120 goblins.",
+		"You're currently assigned to kill goblins; only 12 more to go.",
+		"Select an Option\nExchange 'Oak logs': 5 coins\nExchange All: 25 coins",
+		"Phials converts your banknote.",
+		"Phials converts your banknotes.",
+		"Status: 40 damage points left.\nBreak the ring.",
+		"The ring is fully charged.<br>There would be no point in breaking it.",
+		"The ring shatters. Your next ring of recoil will start<br>afresh from 40 damage points."
+	};
+
+	private static final String[] nearMissCases =
+	{
+		"",
+		" ",
+		"Y",
+		"<",
+		"Hello there.",
+		"<col=ff0000>Hello</col>",
+		"1,000 x Coins",
+		"1,000 x coins.",
+		" 1,000 x Coins.",
+		"you gain 1 Attack XP.",
+		"You gain 1 Attack XP",
+		"You gain Attack XP.",
+		"Your lap count is:",
+		"Your reward is",
+		"Congratulations",
+		"Congratulations, you've just advanced your Attack level",
+		"congratulations, you've just advanced your Attack level.",
+		"Congratulations, you've reached a total level of many.",
+		"Well done! You have completed an easy task in the Varrock area.",
+		"<col>Valuable drop: Dragon bones</col>",
+		"<col=ef1020>valuable drop: Dragon bones</col>",
+		"Valuable drop: Dragon bones",
+		"<col=ef1020>You're assigned to kill </col>goblins<col=ef1020>.</col>",
+		"<col=ef1020>You've completed </col>many tasks <col=ef1020>",
+		"Amount of rifts you have closed",
+		"Total elemental energy",
+		"\nTotal elemental energy: 1.",
+		"Zezima: currently costs 5 coins",
+		": currently costs 5 coins.",
+		"1,337 ",
+		"-1",
+		"1.5",
+		"Your new task is to kill goblins.",
+		"Your new task is to kill 120 goblins",
+		"You're currently assigned to kill goblins.",
+		"Your wish has been granted! You have been awarded 2,500 Attack experience!",
+		"Select an Option\nExchange 'Oak logs': 10 coins\n",
+		"Select an Option\nExchange 'Oak logs': 5 coins",
+		"Phials converts your banknotes",
+		"Phials converts your banknotess.",
+		"Status: 40 damage points left. Break the ring.",
+		"The ring is fully charged. There would be no point in breaking it.",
+		"The ring shatters. Your next ring of recoil will start<br>afresh from many damage points."
+	};
+
+	private static final PolywoofFormatter.BlockEntry[][] entryTables =
+	{
+		PolywoofFormatter.messageEntries,
+		PolywoofFormatter.overheadEntries,
+		PolywoofFormatter.dialogueEntries
+	};
+
+	@Test
+	public void parserMatchesTheLinearLoop()
+	{
+		for(PolywoofFormatter.BlockEntry[] entries : entryTables)
+		{
+			for(String string : matchingCases)
+				assertEquals(string, legacyParser(string, entries), parse(string, entries));
+
+			for(String string : nearMissCases)
+				assertEquals(string, legacyParser(string, entries), parse(string, entries));
+		}
+	}
+
+	@Test
+	public void parserPicksTheSameEntry()
+	{
+		for(PolywoofFormatter.BlockEntry[] entries : entryTables)
+		{
+			PolywoofFormatter.BlockEntry[] tagged = tagged(entries);
+			BitSet picked = new BitSet(entries.length);
+
+			for(String string : matchingCases)
+			{
+				String expected = legacyParser(string, tagged);
+
+				assertEquals(string, expected, parse(string, tagged));
+
+				if(!expected.equals(string))
+					picked.set(Integer.parseInt(expected.substring(0, expected.indexOf('|'))));
+			}
+
+			for(String string : nearMissCases)
+				assertEquals(string, legacyParser(string, tagged), parse(string, tagged));
+
+			assertEquals(entries.length, picked.cardinality());
+		}
+	}
+
+	@Test
+	public void nearMissesPassThrough()
+	{
+		for(PolywoofFormatter.BlockEntry[] entries : entryTables)
+			for(String string : nearMissCases)
+				assertEquals(string, string, parse(string, entries));
+	}
+
+	@Test
+	public void blockedEntriesSkipTheCallback()
+	{
+		assertNull(parse("You gain 1,250 Attack XP.", PolywoofFormatter.messageEntries));
+		assertNull(parse("1,337", PolywoofFormatter.overheadEntries));
+		assertNotNull(parse("1,337", PolywoofFormatter.messageEntries));
+		assertEquals("Your new task is to kill goblins.", parse("Your new task is to kill 120 goblins.", PolywoofFormatter.dialogueEntries));
+	}
+
+	private static PolywoofFormatter.BlockEntry[] tagged(PolywoofFormatter.BlockEntry[] entries)
+	{
+		PolywoofFormatter.BlockEntry[] tagged = new PolywoofFormatter.BlockEntry[entries.length];
+
+		for(int i = 0; i < entries.length; i++)
+			tagged[i] = new PolywoofFormatter.BlockEntry(entries[i].pattern.pattern(), i + "|" + (entries[i].replacement == null ? "" : entries[i].replacement));
+
+		return tagged;
+	}
+
+	private static String parse(String string, PolywoofFormatter.BlockEntry[] entries)
+	{
+		List<String> parsed = new ArrayList<>(1);
+
+		PolywoofFormatter.parser(string, entries, parsed::add);
+		assertTrue(string, parsed.size() <= 1);
+		return parsed.isEmpty() ? null : parsed.get(0);
+	}
+
+	private static String legacyParser(String string, PolywoofFormatter.BlockEntry[] entries)
+	{
+		for(PolywoofFormatter.BlockEntry entry : entries)
+		{
+			Matcher matcher = entry.pattern.matcher(string);
+
+			if(matcher.find())
+			{
+				if(entry.replacement == null)
+					return null;
+
+				Object[] groups = new Object[matcher.groupCount()];
+
+				for(int i = 0; i < matcher.groupCount(); i++)
+					groups[i] = matcher.group(i + 1);
+
+				return String.format(entry.replacement, groups);
+			}
+		}
+
+		return string;
+	}
+}
@@ -0,0 +1,142 @@
+package com.polywoof;
+
+import org.h2.engine.Constants;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PolywoofStorageBenchmark
+{
+	private static final int ROWS = 2000;
+	private static final int LOOKUPS = 50000;
+	private static final int WARM_UP = 10000;
+
+	public static void main(String[] args) throws Exception
+	{
+		File directory = Files.createTempDirectory("polywoof").toFile();
+		File file = new File(directory, "polywoof" + Constants.SUFFIX_MV_FILE);
+		PolywoofStorage.Language language = new PolywoofTranslator.OfflineLanguage("RU", "Russian");
+		PolywoofStorage.DataType type = PolywoofStorage.DataType.DIALOGUE_TEXT;
+		PolywoofStorage storage = new PolywoofStorage(file, 0, 2);
+
+		storage.open();
+
+		for(int i = 0; i < 500 && !storage.status(); i++)
+			Thread.sleep(10L);
+
+		long start = System.nanoTime();
+		CountDownLatch inserted = new CountDownLatch(ROWS);
+
+		for(int i = 0; i < ROWS; i++)
+			storage.insert("Строка " + line(i), "Line " + line(i), language, type, inserted::countDown);
+
+		inserted.await(60L, TimeUnit.SECONDS);
+		report("insert (write-behind)", new long[] {System.nanoTime() - start}, ROWS);
+
+		long[] pooled = new long[LOOKUPS];
+
+		for(int i = -WARM_UP; i < LOOKUPS; i++)
+		{
+			CompletableFuture<String> select = new CompletableFuture<>();
+			long begin = System.nanoTime();
+
+			storage.select("Line " + line(Math.floorMod(i, ROWS)), language, type, type.priority, select::complete);
+			select.get(5L, TimeUnit.SECONDS);
+
+			if(i >= 0)
+				pooled[i] = System.nanoTime() - begin;
+		}
+
+		report("storage select", pooled, 1);
+
+		try(Connection connection = DriverManager.getConnection(Constants.START_URL + file.getPath().replace(Constants.SUFFIX_MV_FILE, "")))
+		{
+			String query = String.format("SELECT OSRS, `%2$s` FROM `%1$s` WHERE HASH=? AND `%2$s` IS NOT NULL", type, language);
+			long[] hashes = new long[ROWS];
+			long[] prepared = new long[LOOKUPS];
+			long[] reused = new long[LOOKUPS];
+
+			try(PreparedStatement select = connection.prepareStatement(String.format("SELECT HASH FROM `%1$s`", type)))
+			{
+				try(ResultSet result = select.executeQuery())
+				{
+					for(int i = 0; i < ROWS && result.next(); i++)
+						hashes[i] = result.getLong(1);
+				}
+			}
+
+			for(int i = -WARM_UP; i < LOOKUPS; i++)
+			{
+				long begin = System.nanoTime();
+
+				try(PreparedStatement select = connection.prepareStatement(query))
+				{
+					lookup(select, hashes[Math.floorMod(i, ROWS)]);
+				}
+
+				if(i >= 0)
+					prepared[i] = System.nanoTime() - begin;
+			}
+
+			try(PreparedStatement select = connection.prepareStatement(query))
+			{
+				for(int i = -WARM_UP; i < LOOKUPS; i++)
+				{
+					long begin = System.nanoTime();
+
+					lookup(select, hashes[Math.floorMod(i, ROWS)]);
+
+					if(i >= 0)
+						reused[i] = System.nanoTime() - begin;
+				}
+			}
+
+			report("jdbc prepared per call", prepared, 1);
+			report("jdbc pooled statement", reused, 1);
+		}
+
+		storage.close();
+		System.exit(0);
+	}
+
+	private static void lookup(PreparedStatement select, long hash) throws Exception
+	{
+		select.setLong(1, hash);
+
+		try(ResultSet result = select.executeQuery())
+		{
+			if(!result.next())
+				throw new IllegalStateException("Missing row " + hash);
+		}
+	}
+
+	private static String line(int index)
+	{
+		StringBuilder builder = new StringBuilder(4);
+
+		for(int i = index; i > 0 || builder.length() == 0; i /= 26)
+			builder.append((char) ('a' + i % 26));
+
+		return builder.toString();
+	}
+
+	private static void report(String name, long[] samples, int operations)
+	{
+		long[] sorted = samples.clone();
+		Arrays.sort(sorted);
+
+		double total = Arrays.stream(sorted).sum() / 1e3;
+
+		System.out.printf("%-28s %10.2f us/op  p50 %8.2f us  p99 %8.2f us%n", name, total / (samples.length * (double) operations),
+			sorted[sorted.length / 2] / 1e3 / operations,
+			sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 1e3 / operations);
+	}
+}
@@ -0,0 +1,86 @@
+package com.polywoof;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PolywoofStorageTest
+{
+	private static final PolywoofStorage.Language russian = new PolywoofTranslator.OfflineLanguage("RU", "Russian");
+	private static final PolywoofStorage.DataType type = PolywoofStorage.DataType.DIALOGUE_TEXT;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void numberedRowsMoveToTheirTemplate() throws Exception
+	{
+		File file = new File(folder.getRoot(), "polywoof.mv.db");
+		PolywoofStorage storage = open(file);
+		CountDownLatch flushed = new CountDownLatch(3);
+
+		storage.insert("У вас 5 монет.", "You have 5 coins.", russian, type, flushed::countDown);
+		storage.insert("5 из 7 сделано.", "Done 7 of 5.", russian, type, flushed::countDown);
+		storage.insert("Привет.", "Hello there.", russian, type, flushed::countDown);
+
+		assertTrue(flushed.await(10L, TimeUnit.SECONDS));
+
+		try(Connection connection = DriverManager.getConnection("jdbc:h2:" + new File(folder.getRoot(), "polywoof").getPath()))
+		{
+			try(PreparedStatement delete = connection.prepareStatement("DELETE FROM `POLYWOOF` WHERE NAME='TEMPLATE'"))
+			{
+				delete.executeUpdate();
+			}
+		}
+
+		storage.close();
+		storage = open(file);
+
+		String moved = select(storage, "You have {0} coins.");
+
+		for(int i = 0; i < 100 && moved == null; i++)
+		{
+			Thread.sleep(50L);
+			moved = select(storage, "You have {0} coins.");
+		}
+
+		assertEquals("У вас {0} монет.", moved);
+		assertNull(select(storage, "You have 5 coins."));
+		assertNull(select(storage, "Done {0} of {1}."));
+		assertEquals("Привет.", select(storage, "Hello there."));
+
+		storage.close();
+	}
+
+	private static PolywoofStorage open(File file) throws InterruptedException
+	{
+		PolywoofStorage storage = new PolywoofStorage(file, 0, 1);
+
+		storage.open();
+
+		for(int i = 0; i < 500 && !storage.status(); i++)
+			Thread.sleep(10L);
+
+		return storage;
+	}
+
+	private static String select(PolywoofStorage storage, String key) throws Exception
+	{
+		CompletableFuture<String> select = new CompletableFuture<>();
+
+		storage.select(key, russian, type, type.priority, select::complete);
+		return select.get(5L, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,55 @@
+package com.polywoof;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PolywoofTemplateTest
+{
+	@Test
+	public void templateExtractsNumbers()
+	{
+		List<String> values = new ArrayList<>(2);
+
+		assertEquals("You gain {0} XP in {1} seconds.", PolywoofFormatter.template("You gain 1,000 XP in 7 seconds.", values));
+		assertEquals(Arrays.asList("1,000", "7"), values);
+
+		values.clear();
+
+		assertEquals("Level{0} is 3.5x harder than v2.", PolywoofFormatter.template("Level{0} is 3.5x harder than v2.", values));
+		assertEquals(Collections.emptyList(), values);
+
+		assertEquals("Take {0} of the {1}.", PolywoofFormatter.template("Take 2.5 of the 10.", null));
+		assertEquals("No numbers in v2 or x3.", PolywoofFormatter.template("No numbers in v2 or x3.", null));
+	}
+
+	@Test
+	public void fillRestoresTemplate()
+	{
+		List<String> values = new ArrayList<>(2);
+		String string = "You gain 1,000 XP in 7 seconds.";
+		String template = PolywoofFormatter.template(string, values);
+
+		assertEquals(string, PolywoofFormatter.fill(template, values));
+		assertEquals("За {1} секунд получено {0} опыта.", PolywoofFormatter.fill("За {1} секунд получено {0} опыта.", Collections.emptyList()));
+		assertEquals("За 7 секунд получено 1,000 опыта.", PolywoofFormatter.fill("За {1} секунд получено {0} опыта.", values));
+		assertEquals("{2} stays.", PolywoofFormatter.fill("{2} stays.", values));
+		assertEquals("$1 \\0", PolywoofFormatter.fill("{0} {1}", Arrays.asList("$1", "\\0")));
+	}
+
+	@Test
+	public void protectRoundTrips()
+	{
+		String template = "You gain {0} XP in {1} seconds.";
+		String protect = PolywoofFormatter.protect(template);
+
+		assertEquals("You gain <span translate=\"no\">{0}</span> XP in <span translate=\"no\">{1}</span> seconds.", protect);
+		assertEquals(template, PolywoofFormatter.unprotect(protect));
+		assertEquals("No placeholders.", PolywoofFormatter.protect("No placeholders."));
+	}
+}
@@ -0,0 +1,122 @@
+package com.polywoof;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PolywoofTranslatorTest
+{
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+	private HttpServer server;
+	private PolywoofStorage storage;
+	private PolywoofTranslator translator;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v2/translate", exchange ->
+		{
+			try(InputStream input = exchange.getRequestBody(); Scanner scanner = new Scanner(input, "UTF-8"))
+			{
+				requests.add(URLDecoder.decode(scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "", "UTF-8"));
+			}
+
+			byte[] body = "{\"translations\":[{\"text\":\"Куда дальше?\"}]}".getBytes(StandardCharsets.UTF_8);
+
+			exchange.sendResponseHeaders(200, body.length);
+
+			try(OutputStream output = exchange.getResponseBody())
+			{
+				output.write(body);
+			}
+		});
+		server.start();
+
+		storage = new PolywoofStorage(new File(folder.getRoot(), "polywoof.mv.db"), 100, 2);
+		storage.open();
+
+		for(int i = 0; i < 500 && !storage.status(); i++)
+			Thread.sleep(10L);
+
+		translator = new PolywoofTranslator(new OkHttpClient(), storage, "test");
+
+		Field url = PolywoofTranslator.class.getDeclaredField("URL");
+		url.setAccessible(true);
+		url.set(translator, "http://127.0.0.1:" + server.getAddress().getPort());
+	}
+
+	@After
+	public void tearDown()
+	{
+		translator.close();
+		storage.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void prefetchSendsOnAnIdleQueue() throws Exception
+	{
+		PolywoofStorage.Language german = new PolywoofTranslator.OfflineLanguage("DE", "German");
+		PolywoofStorage.Language russian = language("RU", "Russian");
+		CountDownLatch flushed = new CountDownLatch(1);
+
+		storage.follow("Hello there.", "Where to next?", PolywoofStorage.DataType.DIALOGUE_TEXT);
+		storage.insert("Wohin als Nächstes?", "Where to next?", german, PolywoofStorage.DataType.DIALOGUE_TEXT, flushed::countDown);
+
+		assertTrue(flushed.await(10L, TimeUnit.SECONDS));
+
+		translator.prefetch("Hello there.", russian);
+
+		String request = requests.poll(10L, TimeUnit.SECONDS);
+
+		assertTrue(request != null && request.contains("text=Where to next?"));
+		assertEquals("RU", request.replaceAll(".*target_lang=([A-Z]+).*", "$1"));
+	}
+
+	@Test
+	public void blankParagraphsNeverReachTheCallback()
+	{
+		List<String> shown = new ArrayList<>(1);
+		CompletableFuture<String> handle = translator.translate("<br>\n  \n<col=ff0000></col>", language("RU", "Russian"), PolywoofStorage.DataType.VARIOUS_SCROLLS, shown::add);
+
+		assertTrue(handle.isCancelled());
+		assertTrue(shown.isEmpty());
+	}
+
+	private static PolywoofStorage.Language language(String code, String name)
+	{
+		JsonObject object = new JsonObject();
+
+		object.addProperty("language", code);
+		object.addProperty("name", name);
+		return new PolywoofTranslator.TrustedLanguage(object);
+	}
+}